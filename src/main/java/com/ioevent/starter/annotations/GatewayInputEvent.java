@@ -66,4 +66,14 @@ public @interface GatewayInputEvent {
 	 */
 	String topic() default "";
 
+	/**
+	 * Maximum time in milliseconds a parallel gateway waits for all its
+	 * inputEvents, once elapsed the join is dropped and a timeout event with the
+	 * output key IOEvent_Gateway_Timeout is sent, the
+	 * ioevent.parallel_join_timeout_ms property is used when not specified
+	 * 
+	 * @return the join timeout in milliseconds
+	 */
+	long timeout() default 0;
+
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * IOBatch annotation enables the batch mode of an @IOEvent method : the
+ * consumed events are accumulated and the method is invoked once per batch with
+ * the list of the payloads (@IOPayload List&lt;T&gt;) and optionally the list of
+ * the headers of each event (@IOHeaders List&lt;Map&lt;String, Object&gt;&gt;).
+ * The method can return a list with one result per event, the output events
+ * are still sent one per consumed event so the flow stays the same.
+ **/
+@Target({ ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface IOBatch {
+
+	/**
+	 * The maximum number of events of a batch, 0 disables the batch mode
+	 * 
+	 * @return the maximum batch size
+	 */
+	int maxSize() default 100;
+
+	/**
+	 * The maximum time in milliseconds to wait for a batch to fill up once its
+	 * first event is consumed
+	 * 
+	 * @return the maximum wait time
+	 */
+	long maxWaitMs() default 100;
+}
@@ -137,4 +137,13 @@ public @interface IOEvent {
 	 * @return an ExceptionEvent object
 	 */
 	ExceptionEvent exception() default @ExceptionEvent();
+
+	/**
+	 * An @IOBatch annotation enables the batch mode of the method which is then
+	 * invoked with the list of the payloads of up to maxSize consumed events
+	 * instead of once per event, disabled by default.
+	 * 
+	 * @return an IOBatch object
+	 */
+	IOBatch batch() default @IOBatch(maxSize = 0);
 }
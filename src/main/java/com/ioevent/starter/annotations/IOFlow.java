@@ -21,6 +21,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.ioevent.starter.domain.IOEventFetchMode;
+
 /**
  * IOFlow annotation uses to specify the classes that contains @IOEvent methods
  * , @IOFlow classes are processed by BeanPostProcessors to extract information
@@ -60,4 +62,33 @@ public @interface IOFlow {
 	 * @return  apiKey string
 	 */
 	String apiKey() default "";
+
+	/**
+	 * Number of single threaded lanes used to run the @IOEvent methods of the
+	 * class, the events of a process instance (same correlation ID) always run on
+	 * the same lane in their consuming order while different instances run in
+	 * parallel. With the default 0 the events are run by the shared executor
+	 * without ordering guarantee.
+	 * 
+	 * @return the lane count
+	 */
+	int lanes() default 0;
+
+	/**
+	 * Fetch tuning of the listeners consuming the events of the class methods,
+	 * LATENCY for small batches returned as soon as possible or THROUGHPUT for
+	 * large batches. With the default DEFAULT the ioevent.fetch_mode property is
+	 * used.
+	 * 
+	 * @return the fetch mode
+	 */
+	IOEventFetchMode fetchMode() default IOEventFetchMode.DEFAULT;
+
+	/**
+	 * Maximum number of records returned by a poll of the listeners consuming the
+	 * events of the class methods, 0 to use the value of the fetch mode.
+	 * 
+	 * @return the max poll records
+	 */
+	int maxPollRecords() default 0;
 }
@@ -19,33 +19,31 @@
 package com.ioevent.starter.configuration;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.ToLongFunction;
 
 import org.apache.kafka.common.serialization.Serdes;
-import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.Consumed;
-import org.apache.kafka.streams.kstream.Grouped;
-import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Import;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -59,20 +57,37 @@ import com.ioevent.starter.configuration.aspect.v2.IOEventStartAspect;
 import com.ioevent.starter.configuration.aspect.v2.IOEventTransitionAspect;
 import com.ioevent.starter.configuration.aspect.v2.IOExceptionHandlingAspect;
 import com.ioevent.starter.configuration.context.AppContext;
+import com.ioevent.starter.configuration.kafka.IOEventAppNameHeaderFilter;
+import com.ioevent.starter.configuration.kafka.IOEventGatewayTopics;
+import com.ioevent.starter.configuration.kafka.IOEventParallelAggregateSerde;
+import com.ioevent.starter.configuration.kafka.IOEventParallelJoinProcessor;
+import com.ioevent.starter.configuration.kafka.IOEventParallelJoinStats;
 import com.ioevent.starter.configuration.kafka.KafkaConfig;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
 import com.ioevent.starter.configuration.postprocessor.IOEventBpmnPostProcessor;
 import com.ioevent.starter.configuration.postprocessor.IOEventTopicBeanPostProcessor;
 import com.ioevent.starter.configuration.properties.IOEventProperties;
+import com.ioevent.starter.controller.IOEventControlController;
 import com.ioevent.starter.controller.IOEventController;
 import com.ioevent.starter.domain.IOEventBpmnPart;
+import com.ioevent.starter.domain.IOEventParallelAggregate;
 import com.ioevent.starter.domain.IOEventParallelEventInformation;
+import com.ioevent.starter.handler.IOEventJacksonPayloadCodec;
+import com.ioevent.starter.handler.IOEventPayloadCodec;
+import com.ioevent.starter.handler.IOEventPayloadResolver;
+import com.ioevent.starter.handler.IOEventStepRegistry;
 import com.ioevent.starter.handler.RecordsHandler;
+import com.ioevent.starter.listener.IOEventConsumerPool;
+import com.ioevent.starter.listener.IOEventListenerAutoscaler;
+import com.ioevent.starter.listener.IOEventListenerBootstrap;
 import com.ioevent.starter.listener.IOEventParrallelListener;
+import com.ioevent.starter.listener.IOEventThreads;
 import com.ioevent.starter.listener.Listener;
 import com.ioevent.starter.listener.ListenerCreator;
 import com.ioevent.starter.service.IOEventMessageBuilderService;
 import com.ioevent.starter.service.IOEventRegistryService;
 import com.ioevent.starter.service.IOEventService;
+import com.ioevent.starter.service.IOEventStepControlService;
 import com.ioevent.starter.service.TopicServices;
 
 import lombok.RequiredArgsConstructor;
@@ -96,50 +111,50 @@ public class IOEventConfiguration {
 
 	ObjectMapper mapper = new ObjectMapper();
 
+	private static final String PARALLEL_JOINS_STORE = "ioevent-parallel-gateway-joins";
+
 	@Value("${spring.application.name}")
 	private String appName;
 
 	/**
-	 * method for processing parallel events from the ioevent-parallel-gateway-events topic using kafka stream,
+	 * method for processing parallel events from the gateway events topic of the application using kafka stream,
+	 * the events of other applications are dropped on their AppName header, the events are grouped by their
+	 * gateway key and joined in a binary aggregate where each arrived branch is appended, only the completed
+	 * joins are sent to the aggregation topic, the joins older than
+	 * the timeout of their gateway are evicted from the state store and sent as timeout events when incomplete,
 	 * 
-	 * @param builder type of StreamsBuilder,
+	 * @param builder           type of StreamsBuilder,
+	 * @param gatewayTopics     for the gateway topics of the application,
+	 * @param stepRegistry      for the registry of the steps giving the timeout of the gateways,
+	 * @param joinStats         for the statistics of the pending joins,
+	 * @param ioEventProperties for the ioevent properties,
 	 */
 	@Autowired
-	public void processKStream(final StreamsBuilder builder) {
+	public void processKStream(final StreamsBuilder builder, IOEventGatewayTopics gatewayTopics,
+			IOEventStepRegistry stepRegistry, IOEventParallelJoinStats joinStats, IOEventProperties ioEventProperties) {
 
 		Gson gson = new Gson();
 
-		KStream<String, String> kstream = builder
-				.stream("ioevent-parallel-gateway-events", Consumed.with(Serdes.String(), Serdes.String()))
-				.map(KeyValue::new).filter((k, v) -> {
-					IOEventParallelEventInformation value = gson.fromJson(v, IOEventParallelEventInformation.class);
-					return appName.equals(value.getHeaders().get("AppName"));
-				});
-		kstream.groupByKey(Grouped.with(Serdes.String(), Serdes.String()))
-				.aggregate(() -> "", (key, value, aggregateValue) -> {
-					IOEventParallelEventInformation currentValue = gson.fromJson(value,
-							IOEventParallelEventInformation.class);
-					IOEventParallelEventInformation updatedValue;
-					if (!aggregateValue.isBlank()) {
-						updatedValue = gson.fromJson(aggregateValue, IOEventParallelEventInformation.class);
-					} else {
-						updatedValue = currentValue;
-					}
-					List<String> updatedOutputList = Stream
-							.of(currentValue.getInputsArrived(), updatedValue.getInputsArrived())
-							.flatMap(Collection::stream).distinct().collect(Collectors.toList());
-					Map<String, Object> updatedHeaders = Stream.of(currentValue.getHeaders(), updatedValue.getHeaders())
-							.flatMap(map -> map.entrySet().stream())
-							.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1));
-					Map<String, Object> updatedPayload = Stream.of(currentValue.getPayloadMap(), updatedValue.getPayloadMap())
-							.flatMap(map -> map.entrySet().stream())
-							.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1));
-					updatedValue.setInputsArrived(updatedOutputList);
-					updatedValue.setHeaders(updatedHeaders);
-					updatedValue.setPayloadMap(updatedPayload);
-					aggregateValue = gson.toJson(updatedValue);
-					return aggregateValue;
-				}).toStream().to("ioevent-parallel-gateway-aggregation", Produced.with(Serdes.String(), Serdes.String()));
+		IOEventParallelAggregateSerde aggregateSerde = new IOEventParallelAggregateSerde();
+		ToLongFunction<IOEventParallelAggregate> timeoutOf = aggregate -> {
+			BeanMethodPair pair = stepRegistry.getStep(aggregate.getStepId(), aggregate.getClassName(),
+					aggregate.getMethod());
+			long timeout = (pair != null) ? pair.getIoEvent().gatewayInput().timeout() : 0;
+			return (timeout > 0) ? timeout : ioEventProperties.getParallel_join_timeout_ms();
+		};
+		builder.addStateStore(Stores.timestampedKeyValueStoreBuilder(
+				Stores.persistentTimestampedKeyValueStore(PARALLEL_JOINS_STORE), Serdes.String(), aggregateSerde));
+		builder
+				.stream(gatewayTopics.getEventsTopic(), Consumed.with(Serdes.String(), Serdes.String()))
+				.transformValues(() -> new IOEventAppNameHeaderFilter(gatewayTopics))
+				.filter((k, v) -> v != null)
+				.mapValues(v -> gson.fromJson(v, IOEventParallelEventInformation.class))
+				.filter((k, v) -> v != null && appName.equals(v.getHeaders().get("AppName")))
+				.mapValues(IOEventParallelAggregate::of)
+				.transform(() -> new IOEventParallelJoinProcessor(PARALLEL_JOINS_STORE, timeoutOf,
+						ioEventProperties.getParallel_join_expiry_interval_ms(), joinStats), PARALLEL_JOINS_STORE)
+				.mapValues(joinedEvent -> gson.toJson(joinedEvent))
+				.to(gatewayTopics.getAggregationTopic(), Produced.with(Serdes.String(), Serdes.String()));
 
 	}
 	@ConditionalOnMissingBean
@@ -148,6 +163,16 @@ public class IOEventConfiguration {
 		return new IOEventParrallelListener();
 	}
 
+	@Bean
+	public IOEventGatewayTopics ioEventGatewayTopics(IOEventProperties ioEventProperties) {
+		return new IOEventGatewayTopics(ioEventProperties.getPrefix(), appName);
+	}
+
+	@Bean
+	public IOEventParallelJoinStats ioEventParallelJoinStats() {
+		return new IOEventParallelJoinStats();
+	}
+
 	@Bean
 	public AppContext appContext() {
 		return new AppContext();
@@ -163,6 +188,30 @@ public class IOEventConfiguration {
 	public TopicServices topicServices() {
 		return new TopicServices();
 	}
+
+	@Bean
+	public IOEventStepControlService ioEventStepControlService() {
+		return new IOEventStepControlService();
+	}
+	@ConditionalOnMissingBean
+	@Bean
+	public IOEventPayloadCodec ioEventPayloadCodec() {
+		return new IOEventJacksonPayloadCodec();
+	}
+
+	@Bean
+	public IOEventStepRegistry ioEventStepRegistry() {
+		return new IOEventStepRegistry();
+	}
+
+	@Bean
+	public IOEventPayloadResolver ioEventPayloadResolver(
+			@Qualifier("userConsumerFactory") ConsumerFactory<String, String> userConsumerFactory,
+			IOEventProperties ioEventProperties) {
+		return new IOEventPayloadResolver(userConsumerFactory, ioEventProperties.getParallel_payload_fetch_timeout_ms(),
+				ioEventProperties.getParallel_payload_resolver_consumers());
+	}
+
 	@ConditionalOnMissingBean
 	@Bean
 	public RecordsHandler recordsHandler() {
@@ -175,7 +224,37 @@ public class IOEventConfiguration {
 	}
 
 	@Bean
-	public Executor asyncExecutor() {
+	public IOEventConsumerPool ioEventConsumerPool() {
+		return new IOEventConsumerPool();
+	}
+
+	@Bean
+	public IOEventListenerBootstrap ioEventListenerBootstrap() {
+		return new IOEventListenerBootstrap();
+	}
+
+	@Bean
+	public IOEventListenerAutoscaler ioEventListenerAutoscaler() {
+		return new IOEventListenerAutoscaler();
+	}
+
+	/**
+	 * executor running the @IOEvent methods, a virtual thread per task when
+	 * ioevent.virtual_threads is enabled and supported by the runtime,
+	 * 
+	 * @param ioEventProperties for the ioevent properties,
+	 * @return Executor,
+	 */
+	@Bean
+	public Executor asyncExecutor(IOEventProperties ioEventProperties) {
+		if (Boolean.TRUE.equals(ioEventProperties.getVirtual_threads())) {
+			Executor virtualExecutor = IOEventThreads.virtualThreadPerTaskExecutor("Asynchronous Process-");
+			if (virtualExecutor != null) {
+				log.info("IOEvent methods will run on virtual threads");
+				return virtualExecutor;
+			}
+			log.warn("virtual threads are not supported by the runtime, the IOEvent methods will run on the thread pool");
+		}
 		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 		executor.setCorePoolSize(5);
 		executor.setMaxPoolSize(10);
@@ -233,6 +312,12 @@ public class IOEventConfiguration {
 		return new IOEventController();
 	}
 
+	@ConditionalOnProperty(prefix = "ioevent", name = "control_endpoints_enabled", havingValue = "true")
+	@Bean
+	public IOEventControlController ioEventControlController() {
+		return new IOEventControlController();
+	}
+
 	
 
 	@Bean("iobpmnlist")
@@ -47,6 +47,7 @@ import com.ioevent.starter.annotations.OutputEvent;
 import com.ioevent.starter.configuration.properties.IOEventProperties;
 import com.ioevent.starter.domain.IOEventHeaders;
 import com.ioevent.starter.domain.IOEventType;
+import com.ioevent.starter.handler.IOEventBatchItem;
 import com.ioevent.starter.handler.IOEventRecordInfo;
 import com.ioevent.starter.logger.EventLogger;
 import com.ioevent.starter.service.IOEventContextHolder;
@@ -134,6 +135,10 @@ public class IOEvenImplicitTaskAspect {
 	@AfterReturning(value = "@annotation(anno)", argNames = "jp, anno,return", returning = "return")
 	public void iOEventAnnotationAspect(JoinPoint joinPoint, IOEvent ioEvent, Object returnObject)
 			throws ParseException, JsonProcessingException, InterruptedException, ExecutionException {
+		// @IOBatch method : one output event per consumed event of the batch
+		if (IOEventBatchItem.forEachItem(returnObject, (item, result) -> iOEventAnnotationAspect(joinPoint, ioEvent, result))) {
+			return;
+		}
 
 		if (ioEventService.isImplicitTask(ioEvent)) {
 
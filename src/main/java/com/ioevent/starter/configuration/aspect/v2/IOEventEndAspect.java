@@ -49,6 +49,7 @@ import com.ioevent.starter.annotations.IOResponse;
 import com.ioevent.starter.configuration.properties.IOEventProperties;
 import com.ioevent.starter.domain.IOEventHeaders;
 import com.ioevent.starter.domain.IOEventType;
+import com.ioevent.starter.handler.IOEventBatchItem;
 import com.ioevent.starter.handler.IOEventRecordInfo;
 import com.ioevent.starter.logger.EventLogger;
 import com.ioevent.starter.service.IOEventContextHolder;
@@ -91,6 +92,10 @@ public class IOEventEndAspect {
 	@AfterReturning(value = "@annotation(anno)", argNames = "jp, anno,return", returning = "return")
 	public void iOEventAnnotationAspect(JoinPoint joinPoint, IOEvent ioEvent, Object returnObject)
 			throws JsonProcessingException, InterruptedException, ExecutionException, ParseException {
+		// @IOBatch method : one output event per consumed event of the batch
+		if (IOEventBatchItem.forEachItem(returnObject, (item, result) -> iOEventAnnotationAspect(joinPoint, ioEvent, result))) {
+			return;
+		}
 		if (ioEventService.isEnd(ioEvent)) {
 			IOEventRecordInfo ioeventRecordInfo = IOEventContextHolder.getContext();
 			Map<String, Object> headers = ioEventService.prepareHeaders(ioeventRecordInfo.getHeaderList(),
@@ -42,6 +42,7 @@ import com.ioevent.starter.annotations.OutputEvent;
 import com.ioevent.starter.configuration.properties.IOEventProperties;
 import com.ioevent.starter.domain.IOEventHeaders;
 import com.ioevent.starter.domain.IOEventType;
+import com.ioevent.starter.handler.IOEventBatchItem;
 import com.ioevent.starter.handler.IOEventRecordInfo;
 import com.ioevent.starter.logger.EventLogger;
 import com.ioevent.starter.service.IOEventContextHolder;
@@ -89,6 +90,10 @@ public class IOEventTransitionAspect {
 	@AfterReturning(value = "@annotation(anno)", argNames = "jp, anno,return", returning = "return")
 	public void transitionAspect(JoinPoint joinPoint, IOEvent ioEvent, Object returnObject)
 			throws JsonProcessingException, ParseException, InterruptedException, ExecutionException {
+		// @IOBatch method : one output event per consumed event of the batch
+		if (IOEventBatchItem.forEachItem(returnObject, (item, result) -> transitionAspect(joinPoint, ioEvent, result))) {
+			return;
+		}
 
 		if (ioEventService.isTransition(ioEvent)) {
 			IOEventRecordInfo ioeventRecordInfo = IOEventContextHolder.getContext();
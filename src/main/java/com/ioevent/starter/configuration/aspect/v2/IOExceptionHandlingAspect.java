@@ -43,6 +43,7 @@ import com.ioevent.starter.annotations.OutputEvent;
 import com.ioevent.starter.configuration.properties.IOEventProperties;
 import com.ioevent.starter.domain.IOEventHeaders;
 import com.ioevent.starter.domain.IOEventType;
+import com.ioevent.starter.handler.IOEventBatchItem;
 import com.ioevent.starter.handler.IOEventRecordInfo;
 import com.ioevent.starter.logger.EventLogger;
 import com.ioevent.starter.service.IOEventContextHolder;
@@ -85,6 +86,15 @@ public class IOExceptionHandlingAspect {
 	public void throwingExceptionAspect(JoinPoint joinPoint, IOEvent ioEvent, Throwable throwable)
 			throws ParseException, JsonProcessingException, InterruptedException, ExecutionException {
 		throwable.printStackTrace();
+		// @IOBatch method : one output event per consumed event of the batch
+		if (IOEventBatchItem.forEachItem(null, (item, result) -> handleException(joinPoint, ioEvent, throwable, result))) {
+			return;
+		}
+		handleException(joinPoint, ioEvent, throwable, IOEventContextHolder.getContext().getBody());
+	}
+
+	private void handleException(JoinPoint joinPoint, IOEvent ioEvent, Throwable throwable, Object payload)
+			throws ParseException, JsonProcessingException, InterruptedException, ExecutionException {
 		IOEventRecordInfo ioeventRecordInfo = IOEventContextHolder.getContext();
 		EventLogger eventLogger = new EventLogger();
 		eventLogger.startEventLog();
@@ -96,7 +106,7 @@ public class IOExceptionHandlingAspect {
 			IOEventType ioEventType = IOEventType.ERROR_BOUNDRY;
 			eventLogger.setErrorType(throwable.getClass().getCanonicalName());
 			String output = "";
-			IOResponse<Object> response = ioEventService.getpayload(joinPoint, ioeventRecordInfo.getBody());
+			IOResponse<Object> response = ioEventService.getpayload(joinPoint, payload);
 			
 			if (!StringUtils.isBlank(ioEvent.exception().endEvent().value())) {
 				ioEventType = IOEventType.ERROR_END;
@@ -110,7 +120,7 @@ public class IOExceptionHandlingAspect {
 		else {
 				IOEventType ioEventType = IOEventType.UNHANDLED_ERROR;
 				eventLogger.setErrorType(throwable.getClass().getCanonicalName());
-				IOResponse<Object> response = ioEventService.getpayload(joinPoint, ioeventRecordInfo.getBody());
+				IOResponse<Object> response = ioEventService.getpayload(joinPoint, payload);
 				String output ="";
 				output = simpleEventSendProcess(eventLogger,ioEvent, ioFlow, response, output, ioeventRecordInfo, ioEventType, throwable);
 				prepareAndDisplayEventLogger(eventLogger, ioeventRecordInfo, ioEvent, output, watch, response.getBody(), ioEventType);
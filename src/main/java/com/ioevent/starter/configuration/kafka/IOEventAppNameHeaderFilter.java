@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.configuration.kafka;
+
+import org.apache.kafka.streams.kstream.ValueTransformerWithKey;
+import org.apache.kafka.streams.processor.ProcessorContext;
+
+/**
+ * Value transformer of the gateway events stream which drops, by returning
+ * null, the events whose AppName header names another application, the record
+ * value is forwarded untouched and only parsed for the events of the
+ * application.
+ */
+public class IOEventAppNameHeaderFilter implements ValueTransformerWithKey<String, String, String> {
+
+	private final IOEventGatewayTopics gatewayTopics;
+	private ProcessorContext context;
+
+	public IOEventAppNameHeaderFilter(IOEventGatewayTopics gatewayTopics) {
+		this.gatewayTopics = gatewayTopics;
+	}
+
+	@Override
+	public void init(ProcessorContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public String transform(String key, String value) {
+		return gatewayTopics.isOwnEvent(context.headers()) ? value : null;
+	}
+
+	@Override
+	public void close() {
+		// nothing to release
+	}
+}
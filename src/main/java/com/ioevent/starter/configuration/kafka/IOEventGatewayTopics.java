@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.configuration.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Names of the parallel gateway topics of the application. The gateway events
+ * and the joined events are produced to topics namespaced with the IOEvent
+ * prefix and the application name, so the Kafka Streams instance and the
+ * parallel listener of an application only read the records of this
+ * application. The gateway events also carry the application name in the
+ * AppName record header so foreign events can be dropped without parsing their
+ * value.
+ */
+public class IOEventGatewayTopics {
+
+	public static final String APP_NAME_HEADER = "AppName";
+	static final String EVENTS_TOPIC = "ioevent-parallel-gateway-events";
+	static final String AGGREGATION_TOPIC = "ioevent-parallel-gateway-aggregation";
+
+	private final String eventsTopic;
+	private final String aggregationTopic;
+	private final byte[] appNameValue;
+
+	/**
+	 * create the gateway topics names of an application, the shared topics are
+	 * used when the application name is not known,
+	 *
+	 * @param prefix  for the IOEvent topics prefix,
+	 * @param appName for the application name,
+	 */
+	public IOEventGatewayTopics(String prefix, String appName) {
+		String topicPrefix = StringUtils.defaultString(prefix);
+		String topicSuffix = StringUtils.isBlank(appName) ? "" : "-" + appName;
+		this.eventsTopic = topicPrefix + EVENTS_TOPIC + topicSuffix;
+		this.aggregationTopic = topicPrefix + AGGREGATION_TOPIC + topicSuffix;
+		this.appNameValue = StringUtils.isBlank(appName) ? null : appName.getBytes(StandardCharsets.UTF_8);
+	}
+
+	public String getEventsTopic() {
+		return eventsTopic;
+	}
+
+	public String getAggregationTopic() {
+		return aggregationTopic;
+	}
+
+	/**
+	 * method to check the AppName header of a gateway event against the
+	 * application name, events without the header (produced by older versions)
+	 * are accepted and checked once parsed,
+	 *
+	 * @param headers for the record headers,
+	 * @return true if the event may belong to the application,
+	 */
+	public boolean isOwnEvent(Headers headers) {
+		if (appNameValue == null || headers == null) {
+			return true;
+		}
+		Header header = headers.lastHeader(APP_NAME_HEADER);
+		return header == null || Arrays.equals(appNameValue, header.value());
+	}
+}
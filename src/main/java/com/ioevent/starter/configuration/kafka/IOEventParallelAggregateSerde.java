@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.configuration.kafka;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.ioevent.starter.domain.IOEventParallelAggregate;
+
+/**
+ * Serde of the parallel gateway aggregates, the aggregate is already kept in
+ * its binary form so the bytes are written and read without any copy.
+ */
+public class IOEventParallelAggregateSerde implements Serde<IOEventParallelAggregate> {
+
+	@Override
+	public Serializer<IOEventParallelAggregate> serializer() {
+		return (topic, aggregate) -> (aggregate != null) ? aggregate.toBytes() : null;
+	}
+
+	@Override
+	public Deserializer<IOEventParallelAggregate> deserializer() {
+		return (topic, bytes) -> (bytes != null) ? IOEventParallelAggregate.fromBytes(bytes) : null;
+	}
+}
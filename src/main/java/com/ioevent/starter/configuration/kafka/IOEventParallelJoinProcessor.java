@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.configuration.kafka;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Transformer;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import com.ioevent.starter.domain.IOEventParallelAggregate;
+import com.ioevent.starter.domain.IOEventParallelEventInformation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Join processor of the parallel gateway branches. Each arrived branch is merged
+ * in the aggregate of its gateway key, kept with the time of the first arrived
+ * branch, and the join is only forwarded once all the inputs required arrived :
+ * the completed join is then replaced by its completion marker, without the
+ * branch payloads, which stays in the store until it expires so the branches
+ * consumed again afterwards don't start a new join. A punctuator evicts the
+ * joins older than the timeout of their gateway, the joins evicted before all
+ * their inputs arrived are forwarded as timeout events, so the state store and
+ * its changelog stay bounded.
+ */
+@Slf4j
+public class IOEventParallelJoinProcessor
+		implements Transformer<String, IOEventParallelAggregate, KeyValue<String, IOEventParallelEventInformation>> {
+
+	private final String storeName;
+	private final ToLongFunction<IOEventParallelAggregate> timeoutOf;
+	private final long expiryIntervalMs;
+	private final IOEventParallelJoinStats joinStats;
+	private ProcessorContext context;
+	private TimestampedKeyValueStore<String, IOEventParallelAggregate> store;
+	private String taskId;
+
+	/**
+	 * create a join processor,
+	 *
+	 * @param storeName        for the name of the joins state store,
+	 * @param timeoutOf        for the timeout of the gateway of an aggregate,
+	 * @param expiryIntervalMs for the time between two expiry checks,
+	 * @param joinStats        for the statistics of the joins,
+	 */
+	public IOEventParallelJoinProcessor(String storeName, ToLongFunction<IOEventParallelAggregate> timeoutOf,
+			long expiryIntervalMs, IOEventParallelJoinStats joinStats) {
+		this.storeName = storeName;
+		this.timeoutOf = timeoutOf;
+		this.expiryIntervalMs = expiryIntervalMs;
+		this.joinStats = joinStats;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void init(ProcessorContext context) {
+		this.context = context;
+		this.store = (TimestampedKeyValueStore<String, IOEventParallelAggregate>) context.getStateStore(storeName);
+		this.taskId = context.taskId().toString();
+		context.schedule(Duration.ofMillis(expiryIntervalMs), PunctuationType.WALL_CLOCK_TIME, this::expire);
+	}
+
+	@Override
+	public KeyValue<String, IOEventParallelEventInformation> transform(String key, IOEventParallelAggregate branch) {
+		ValueAndTimestamp<IOEventParallelAggregate> join = store.get(key);
+		if (join != null && join.value().isComplete()) {
+			return null;
+		}
+		IOEventParallelAggregate aggregate = (join != null) ? join.value().merge(branch) : branch;
+		long firstArrivalTime = (join != null) ? join.timestamp() : System.currentTimeMillis();
+		if (!aggregate.isComplete()) {
+			store.put(key, ValueAndTimestamp.make(aggregate, firstArrivalTime));
+			return null;
+		}
+		store.put(key, ValueAndTimestamp.make(aggregate.toCompletionMarker(), firstArrivalTime));
+		return KeyValue.pair(key, aggregate.toParallelEventInformation());
+	}
+
+	/**
+	 * evict the joins older than the timeout of their gateway and record the
+	 * pending joins statistics,
+	 *
+	 * @param now for the punctuation time,
+	 */
+	void expire(long now) {
+		List<String> expiredKeys = new ArrayList<>();
+		long pendingJoins = 0;
+		long oldestPendingAgeMs = 0;
+		long timedOutJoins = 0;
+		try (KeyValueIterator<String, ValueAndTimestamp<IOEventParallelAggregate>> joins = store.all()) {
+			while (joins.hasNext()) {
+				KeyValue<String, ValueAndTimestamp<IOEventParallelAggregate>> join = joins.next();
+				IOEventParallelAggregate aggregate = join.value.value();
+				long ageMs = now - join.value.timestamp();
+				boolean complete = aggregate.isComplete();
+				if (ageMs >= timeoutOf.applyAsLong(aggregate)) {
+					expiredKeys.add(join.key);
+					if (!complete) {
+						IOEventParallelEventInformation timeoutEvent = aggregate.toParallelEventInformation();
+						timeoutEvent.setTimeout(true);
+						context.forward(join.key, timeoutEvent);
+						timedOutJoins++;
+					}
+				} else if (!complete) {
+					pendingJoins++;
+					oldestPendingAgeMs = Math.max(oldestPendingAgeMs, ageMs);
+				}
+			}
+		}
+		expiredKeys.forEach(store::delete);
+		if (timedOutJoins > 0) {
+			log.warn(timedOutJoins + " parallel gateway joins expired before all their inputs arrived");
+			joinStats.expired(timedOutJoins);
+		}
+		joinStats.update(taskId, pendingJoins, oldestPendingAgeMs);
+	}
+
+	@Override
+	public void close() {
+		joinStats.remove(taskId);
+	}
+}
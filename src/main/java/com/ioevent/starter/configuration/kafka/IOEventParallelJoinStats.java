@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.configuration.kafka;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the parallel gateway joins kept in the Kafka Streams state
+ * store, updated by the join processor of each stream task on every expiry
+ * check : pending joins and age of the oldest one per task, and the number of
+ * joins expired before all their inputs arrived.
+ */
+public class IOEventParallelJoinStats {
+
+	private final Map<String, long[]> pendingByTask = new ConcurrentHashMap<>();
+	private final AtomicLong expiredJoins = new AtomicLong();
+
+	/**
+	 * method to record the pending joins of a stream task,
+	 *
+	 * @param taskId             for the stream task ID,
+	 * @param pendingJoins       for the number of incomplete joins of the task,
+	 * @param oldestPendingAgeMs for the age of the oldest incomplete join,
+	 */
+	public void update(String taskId, long pendingJoins, long oldestPendingAgeMs) {
+		pendingByTask.put(taskId, new long[] { pendingJoins, oldestPendingAgeMs });
+	}
+
+	/**
+	 * method to forget a stream task closed or migrated to another instance,
+	 *
+	 * @param taskId for the stream task ID,
+	 */
+	public void remove(String taskId) {
+		pendingByTask.remove(taskId);
+	}
+
+	public void expired(long count) {
+		expiredJoins.addAndGet(count);
+	}
+
+	public long getPendingJoins() {
+		return pendingByTask.values().stream().mapToLong(pending -> pending[0]).sum();
+	}
+
+	public long getOldestPendingAgeMs() {
+		return pendingByTask.values().stream().mapToLong(pending -> pending[1]).max().orElse(0L);
+	}
+
+	public long getExpiredJoins() {
+		return expiredJoins.get();
+	}
+}
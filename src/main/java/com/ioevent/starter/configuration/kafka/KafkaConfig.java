@@ -49,7 +49,8 @@ import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.DefaultKafkaHeaderMapper;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.ioevent.starter.handler.IOEventPayloadCodec;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -74,6 +75,8 @@ public class KafkaConfig {
 	private String kafkaBootstrapServer;
 	@Autowired
 	private KafkaProperties kafkaProperties;
+	@Autowired
+	private IOEventPayloadCodec payloadCodec;
 	
 	@Value("${spring.kafka.sasl.mechanism:NONE}")
 	private String PLAIN;
@@ -154,7 +157,6 @@ public class KafkaConfig {
 
 		config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServer);
 		config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-		config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 		
 		if (!StringUtils.isBlank(saslJaasUsername)) {
 			String saslJaasConfig = String.format(
@@ -164,7 +166,7 @@ public class KafkaConfig {
 			config.put("sasl.mechanism", plain);
 			config.put("sasl.jaas.config", saslJaasConfig);
 		}
-		return new DefaultKafkaProducerFactory<>(config);
+		return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), payloadCodec.serializer());
 	}
 
 	/**
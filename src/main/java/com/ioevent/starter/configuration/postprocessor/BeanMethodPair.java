@@ -26,15 +26,27 @@ package com.ioevent.starter.configuration.postprocessor;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.configuration.context.AppContext;
+import com.ioevent.starter.handler.IOEventBindingPlan;
+import com.ioevent.starter.handler.IOEventThrottle;
+import com.ioevent.starter.service.IOEventService;
 
 public class BeanMethodPair {
 
 	private Object bean;
+	private String beanName;
+	private String stepId;
+	private volatile Object target;
 	private Method method;
 	private IOEvent ioEvent;
+	private List<String> inputNames = Collections.emptyList();
+	private volatile IOEventBindingPlan bindingPlan;
+	private int lanes;
+	private volatile IOEventThrottle throttle;
 
 	private List<String> inputEventsArrived = new ArrayList<String>();
 	public BeanMethodPair() {
@@ -43,7 +55,7 @@ public class BeanMethodPair {
 	public BeanMethodPair(Object bean, Method method,IOEvent ioEvent) {
 		this.bean = bean;
 		this.method = method;
-		this.ioEvent=ioEvent; 
+		this.setIoEvent(ioEvent);
 		
 	}
 
@@ -53,6 +65,74 @@ public class BeanMethodPair {
 
 	public void setBean(Object bean) {
 		this.bean = bean;
+		this.target = null;
+	}
+
+	public String getBeanName() {
+		return beanName;
+	}
+
+	public void setBeanName(String beanName) {
+		this.beanName = beanName;
+		this.target = null;
+	}
+
+	/**
+	 * Stable ID of the step , the same ID used for the IOEvent BPMN part of the
+	 * method,
+	 * 
+	 * @return the step ID,
+	 */
+	public String getStepId() {
+		return stepId;
+	}
+
+	public void setStepId(String stepId) {
+		this.stepId = stepId;
+	}
+
+	/**
+	 * The bean on which the method is invoked, resolved from the application
+	 * context once so the invocation goes through the aspects proxy without a
+	 * container lookup per event,
+	 * 
+	 * @return the proxied bean,
+	 */
+	public Object getTarget() {
+		Object resolved = target;
+		if (resolved == null) {
+			resolved = (beanName != null) ? AppContext.getApplicationContext().getBean(beanName)
+					: AppContext.getApplicationContext().getBean(bean.getClass());
+			target = resolved;
+		}
+		return resolved;
+	}
+
+	/**
+	 * Number of ordered lanes of the @IOFlow of the step, 0 when the events of
+	 * the step are processed by the shared executor,
+	 * 
+	 * @return the lane count,
+	 */
+	public int getLanes() {
+		return lanes;
+	}
+
+	public void setLanes(int lanes) {
+		this.lanes = lanes;
+	}
+
+	/**
+	 * Throttle of the step set at runtime, null when the step is not throttled,
+	 * 
+	 * @return IOEventThrottle,
+	 */
+	public IOEventThrottle getThrottle() {
+		return throttle;
+	}
+
+	public void setThrottle(IOEventThrottle throttle) {
+		this.throttle = throttle;
 	}
 
 	public Method getMethod() {
@@ -61,6 +141,22 @@ public class BeanMethodPair {
 
 	public void setMethod(Method method) {
 		this.method = method;
+		this.bindingPlan = null;
+	}
+
+	/**
+	 * Binding plan of the method parameters, compiled on first use and reused
+	 * for every event consumed by the method,
+	 * 
+	 * @return IOEventBindingPlan,
+	 */
+	public IOEventBindingPlan getBindingPlan() {
+		IOEventBindingPlan plan = bindingPlan;
+		if (plan == null) {
+			plan = IOEventBindingPlan.of(method);
+			bindingPlan = plan;
+		}
+		return plan;
 	}
 
 	public IOEvent getIoEvent() {
@@ -69,6 +165,18 @@ public class BeanMethodPair {
 
 	public void setIoEvent(IOEvent ioEvent) {
 		this.ioEvent = ioEvent;
+		this.inputNames = (ioEvent != null) ? Collections.unmodifiableList(IOEventService.inputNamesOf(ioEvent))
+				: Collections.emptyList();
+	}
+
+	/**
+	 * Input names of the @IOEvent annotation, resolved once when the annotation
+	 * is set,
+	 * 
+	 * @return unmodifiable list of Inputs names,
+	 */
+	public List<String> getInputNames() {
+		return inputNames;
 	}
 
 	public List<String> getInputEventsArrived() {
@@ -18,15 +18,13 @@ package com.ioevent.starter.configuration.postprocessor;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanPostProcessor;
@@ -42,8 +40,10 @@ import com.ioevent.starter.domain.IOEventBpmnPart;
 import com.ioevent.starter.domain.IOEventExceptionInformation;
 import com.ioevent.starter.domain.IOEventGatwayInformation;
 import com.ioevent.starter.domain.IOEventType;
+import com.ioevent.starter.handler.IOEventStepRegistry;
+import com.ioevent.starter.listener.IOEventConsumerPool;
+import com.ioevent.starter.listener.IOEventListenerBootstrap;
 import com.ioevent.starter.listener.Listener;
-import com.ioevent.starter.listener.ListenerCreator;
 import com.ioevent.starter.service.IOEventService;
 
 import lombok.extern.slf4j.Slf4j;
@@ -57,23 +57,23 @@ public class IOEventBpmnPostProcessor implements BeanPostProcessor, IOEventPostP
 
 	@Value("${spring.application.name}")
 	private String appName;
-	@Value("#{'${spring.kafka.consumer.group-id:${ioevent.group_id:${spring.application.name:ioevent_default_groupid}}}'}")
-	private String kafkaGroupid;
 	@Autowired
 	private IOEventProperties iOEventProperties;
 
 	@Autowired
 	private List<IOEventBpmnPart> iobpmnlist;
 	@Autowired
-	private ListenerCreator listenerCreator;
-	@Autowired
 	private List<Listener> listeners;
 	@Autowired
 	private Set<String> apiKeys;
 	@Autowired
-	private AdminClient client;
-	@Autowired
 	private IOEventService ioEventService;
+	@Autowired
+	private IOEventStepRegistry stepRegistry;
+	@Autowired
+	private IOEventConsumerPool consumerPool;
+	@Autowired
+	private IOEventListenerBootstrap listenerBootstrap;
 
 	/**
 	 * method post processor before initialization,
@@ -87,6 +87,8 @@ public class IOEventBpmnPostProcessor implements BeanPostProcessor, IOEventPostP
 		try {
 
 			this.process(bean, beanName);
+		} catch (BeansException e) {
+			throw e;
 		} catch (Exception e) {
 			log.error(e.getMessage());
 		}
@@ -120,40 +122,23 @@ public class IOEventBpmnPostProcessor implements BeanPostProcessor, IOEventPostP
 			IOEvent[] ioEvents = method.getAnnotationsByType(IOEvent.class);
 			for (IOEvent ioEvent : ioEvents) {
 				checkMethodValidation(ioFlow, ioEvent, method);
+				String generateID = ioEventService.generateID(ioEvent);
+				BeanMethodPair beanMethodPair = new BeanMethodPair(bean, method, ioEvent);
+				beanMethodPair.setBeanName(beanName);
+				beanMethodPair.setStepId(generateID);
+				beanMethodPair.setLanes((ioFlow != null) ? ioFlow.lanes() : 0);
+				stepRegistry.register(beanMethodPair);
 				if (needListener(ioEvent)) {
 
 					for (String topicName : ioEventService.getInputTopic(ioEvent, ioFlow)) {
-						if (!listenerExist(topicName, bean, method, ioEvent)) {
-							DescribeTopicsResult describeTopics = client
-									.describeTopics(Collections.singleton(iOEventProperties.getPrefix() + topicName));
-							int partitionNumber = describeTopics.all().get()
-									.get(iOEventProperties.getPrefix() + topicName).partitions().size();
-							for (int i = 0; i < (partitionNumber / 2) + 1; i++) {
-								synchronized (method) {
-									Thread listenerThread = new Thread() {
-										@Override
-										public void run() {
-											try {
-												listenerCreator.createListener(bean, method, ioEvent,
-														iOEventProperties.getPrefix() + topicName, kafkaGroupid,
-														Thread.currentThread());
-											} catch (Throwable e) {
-												log.error("Listener creation failed   !!!");
-											}
-										}
-									};
-									listenerThread.start();
-
-									method.wait();
-
-								}
-							}
-
+						if (consumerPool.isEnabled()) {
+							consumerPool.register(iOEventProperties.getPrefix() + topicName, beanMethodPair);
+						} else if (!listenerExist(topicName, beanMethodPair)) {
+							listenerBootstrap.register(iOEventProperties.getPrefix() + topicName, beanMethodPair);
 						}
 					}
 				}
 				String methodReturnType = ioEventService.getMethodReturnType(method); 
-				String generateID = ioEventService.generateID(ioEvent);
 				iobpmnlist.add(createIOEventBpmnPart(ioEvent, ioFlow, bean.getClass().getName(), generateID,
 						method.toGenericString(),methodReturnType,iOEventProperties.getPrefix()));
 
@@ -217,13 +202,25 @@ public class IOEventBpmnPostProcessor implements BeanPostProcessor, IOEventPostP
 	 * @return boolean true if the listener exist else false,
 	 **/
 	public boolean listenerExist(String topicName, Object bean, Method method, IOEvent ioEvent) {
+		return listenerExist(topicName, new BeanMethodPair(bean, method, ioEvent));
+	}
+
+	/**
+	 * check if the listener already exist, if so the bean method pair is added
+	 * to the listener,
+	 * 
+	 * @param topicName      for the topic name,
+	 * @param beanMethodPair for the step bean method pair,
+	 * @return boolean true if the listener exist else false,
+	 **/
+	public boolean listenerExist(String topicName, BeanMethodPair beanMethodPair) {
 		boolean isExist = false;
 		for (Listener listener : listeners) {
 			if (listener != null) {
 				String t = listener.getTopic();
 				if (t.equals(iOEventProperties.getPrefix() + topicName)) {
 
-					listener.addBeanMethod(new BeanMethodPair(bean, method, ioEvent));
+					listener.addBeanMethod(beanMethodPair);
 
 					isExist = true;
 				}
@@ -36,6 +36,7 @@ import org.springframework.lang.Nullable;
 
 import com.ioevent.starter.annotations.IOEvent;
 import com.ioevent.starter.annotations.IOFlow;
+import com.ioevent.starter.configuration.kafka.IOEventGatewayTopics;
 import com.ioevent.starter.configuration.properties.IOEventProperties;
 import com.ioevent.starter.service.IOEventService;
 import com.ioevent.starter.service.TopicServices;
@@ -68,6 +69,8 @@ public class IOEventTopicBeanPostProcessor implements DestructionAwareBeanPostPr
 	private Set<String> ioTopics;
 	@Autowired
 	private IOEventService ioEventService;
+	@Autowired
+	private IOEventGatewayTopics gatewayTopics;
 
 	/**
 	 * BeanPostProcessor method to execute Before Bean Initialisation ,
@@ -102,10 +105,13 @@ public class IOEventTopicBeanPostProcessor implements DestructionAwareBeanPostPr
 	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
 
 		if (bean instanceof TopicServices) {
-			((TopicServices) bean).createTopic("ioevent-parallel-gateway-events", "", replicationFactor,
-					iOEventProperties.getTopic_partition());
-			((TopicServices) bean).createTopic("ioevent-parallel-gateway-aggregation", "", replicationFactor,
-					iOEventProperties.getTopic_partition());
+			int gatewayPartitions = (iOEventProperties.getGateway_topic_partition() > 0)
+					? iOEventProperties.getGateway_topic_partition()
+					: iOEventProperties.getTopic_partition();
+			((TopicServices) bean).createTopic(gatewayTopics.getEventsTopic(), "", replicationFactor,
+					gatewayPartitions);
+			((TopicServices) bean).createTopic(gatewayTopics.getAggregationTopic(), "", replicationFactor,
+					gatewayPartitions);
 			((TopicServices) bean).createTopic("ioevent-apps", "", replicationFactor,
 					iOEventProperties.getTopic_partition());
 			((TopicServices) bean).createTopic("ioevent-implicit-topic", "", replicationFactor,
@@ -30,12 +30,38 @@ import java.util.logging.Logger;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import com.ioevent.starter.domain.IOEventFetchMode;
+
 /**
  * Class for ioevent properties that can be specified in the properties file : 
  * - topic_names : list of topics that the user want to create,
  * - prefix : prefix for the topics default "IOEvent-", 
  * - group_id : group id for kafka consumer,
- * - auto_create_topic : create the topics used in code automatically if true.
+ * - auto_create_topic : create the topics used in code automatically if true,
+ * - in_flight_high_watermark : number of records waiting to be processed by a listener above which its partitions are paused,
+ * - in_flight_low_watermark : number of records waiting to be processed by a listener under which its partitions are resumed,
+ * - virtual_threads : run the listeners and the @IOEvent methods on virtual threads when the runtime supports them (JDK 21+),
+ * - offset_commit_interval_ms : maximum time between two commits of the offsets of the processed records,
+ * - offset_commit_count : number of processed records after which the offsets are committed,
+ * - fetch_mode : fetch tuning of the listeners, latency (default) or throughput,
+ * - max_poll_records, fetch_min_bytes, fetch_max_wait_ms : override the consumer settings of the fetch mode,
+ * - consumer_pool : consume all the input topics with a shared pool of consumers instead of dedicated listeners,
+ * - consumer_pool_size : number of consumers of the pool, the number of available processors by default,
+ * - drain_timeout_ms : maximum time a listener waits on shutdown for its in flight records before committing and closing,
+ * - autoscale : add or retire listeners of a topic according to their lag,
+ * - autoscale_interval_ms : time between two autoscaling checks,
+ * - autoscale_min_listeners, autoscale_max_listeners : bounds of the listeners of a topic, the partition count when the max is not set,
+ * - autoscale_lag_high : lag per listener above which a listener is added,
+ * - autoscale_lag_low : lag per listener under which a listener is retired,
+ * - gateway_topic_partition : partitions of the parallel gateway topics of the application, topic_partition when not set,
+ * - parallel_local_join_ms : time a parallel gateway branch is held waiting for the other branches consumed by the instance before being sent to the Kafka Streams join, 0 disables the local join,
+ * - parallel_join_timeout_ms : time after which an incomplete parallel gateway join is dropped and a timeout event sent, for the gateways without timeout,
+ * - parallel_join_expiry_interval_ms : time between two checks of the expired parallel gateway joins,
+ * - parallel_executor_threads, parallel_executor_queue_capacity : threads and queue size of the executor running the methods of the completed parallel gateway joins,
+ * - parallel_payload_by_reference : send the topic, partition and offset of the parallel gateway branches instead of their payload, the payloads are read back when the joined method is invoked,
+ * - parallel_payload_fetch_timeout_ms : maximum time to read back a parallel gateway payload sent by reference,
+ * - parallel_payload_resolver_consumers : maximum number of consumers reading back the parallel gateway payloads sent by reference,
+ * - control_endpoints_enabled : register the endpoints pausing, resuming and throttling the steps and the topics.
  **/
 @Configuration
 @ConfigurationProperties(prefix = "ioevent")
@@ -61,6 +87,34 @@ public class IOEventProperties {
 	}
 
 	private int topic_partition=1;
+	private int in_flight_high_watermark = 1000;
+	private int in_flight_low_watermark = 500;
+	private Boolean virtual_threads = false;
+	private long offset_commit_interval_ms = 1000L;
+	private int offset_commit_count = 500;
+	private IOEventFetchMode fetch_mode = IOEventFetchMode.LATENCY;
+	private Integer max_poll_records;
+	private Integer fetch_min_bytes;
+	private Integer fetch_max_wait_ms;
+	private Boolean consumer_pool = false;
+	private int consumer_pool_size = 0;
+	private long drain_timeout_ms = 30000L;
+	private Boolean autoscale = false;
+	private long autoscale_interval_ms = 10000L;
+	private int autoscale_min_listeners = 1;
+	private int autoscale_max_listeners = 0;
+	private long autoscale_lag_high = 1000L;
+	private long autoscale_lag_low = 0L;
+	private int gateway_topic_partition = 0;
+	private long parallel_local_join_ms = 100L;
+	private long parallel_join_timeout_ms = 86400000L;
+	private long parallel_join_expiry_interval_ms = 60000L;
+	private int parallel_executor_threads = 10;
+	private int parallel_executor_queue_capacity = 1000;
+	private boolean parallel_payload_by_reference = false;
+	private long parallel_payload_fetch_timeout_ms = 10000L;
+	private int parallel_payload_resolver_consumers = 4;
+	private boolean control_endpoints_enabled = false;
 	public String getPrefix() {
 		return prefix;
 	}
@@ -118,6 +172,230 @@ public class IOEventProperties {
 		this.api_key = api_key;
 	}
 
+	public int getIn_flight_high_watermark() {
+		return in_flight_high_watermark;
+	}
+
+	public void setIn_flight_high_watermark(int in_flight_high_watermark) {
+		this.in_flight_high_watermark = in_flight_high_watermark;
+	}
+
+	public int getIn_flight_low_watermark() {
+		return in_flight_low_watermark;
+	}
+
+	public void setIn_flight_low_watermark(int in_flight_low_watermark) {
+		this.in_flight_low_watermark = in_flight_low_watermark;
+	}
+
+	public Boolean getVirtual_threads() {
+		return virtual_threads;
+	}
+
+	public void setVirtual_threads(Boolean virtual_threads) {
+		this.virtual_threads = virtual_threads;
+	}
+
+	public long getOffset_commit_interval_ms() {
+		return offset_commit_interval_ms;
+	}
+
+	public void setOffset_commit_interval_ms(long offset_commit_interval_ms) {
+		this.offset_commit_interval_ms = offset_commit_interval_ms;
+	}
+
+	public int getOffset_commit_count() {
+		return offset_commit_count;
+	}
+
+	public void setOffset_commit_count(int offset_commit_count) {
+		this.offset_commit_count = offset_commit_count;
+	}
+
+	public IOEventFetchMode getFetch_mode() {
+		return fetch_mode;
+	}
+
+	public void setFetch_mode(IOEventFetchMode fetch_mode) {
+		this.fetch_mode = fetch_mode;
+	}
+
+	public Integer getMax_poll_records() {
+		return max_poll_records;
+	}
+
+	public void setMax_poll_records(Integer max_poll_records) {
+		this.max_poll_records = max_poll_records;
+	}
+
+	public Integer getFetch_min_bytes() {
+		return fetch_min_bytes;
+	}
+
+	public void setFetch_min_bytes(Integer fetch_min_bytes) {
+		this.fetch_min_bytes = fetch_min_bytes;
+	}
+
+	public Integer getFetch_max_wait_ms() {
+		return fetch_max_wait_ms;
+	}
+
+	public void setFetch_max_wait_ms(Integer fetch_max_wait_ms) {
+		this.fetch_max_wait_ms = fetch_max_wait_ms;
+	}
+
+	public Boolean getConsumer_pool() {
+		return consumer_pool;
+	}
+
+	public void setConsumer_pool(Boolean consumer_pool) {
+		this.consumer_pool = consumer_pool;
+	}
+
+	public int getConsumer_pool_size() {
+		return consumer_pool_size;
+	}
+
+	public void setConsumer_pool_size(int consumer_pool_size) {
+		this.consumer_pool_size = consumer_pool_size;
+	}
+
+	public long getDrain_timeout_ms() {
+		return drain_timeout_ms;
+	}
+
+	public void setDrain_timeout_ms(long drain_timeout_ms) {
+		this.drain_timeout_ms = drain_timeout_ms;
+	}
+
+	public Boolean getAutoscale() {
+		return autoscale;
+	}
+
+	public void setAutoscale(Boolean autoscale) {
+		this.autoscale = autoscale;
+	}
+
+	public long getAutoscale_interval_ms() {
+		return autoscale_interval_ms;
+	}
+
+	public void setAutoscale_interval_ms(long autoscale_interval_ms) {
+		this.autoscale_interval_ms = autoscale_interval_ms;
+	}
+
+	public int getAutoscale_min_listeners() {
+		return autoscale_min_listeners;
+	}
+
+	public void setAutoscale_min_listeners(int autoscale_min_listeners) {
+		this.autoscale_min_listeners = autoscale_min_listeners;
+	}
+
+	public int getAutoscale_max_listeners() {
+		return autoscale_max_listeners;
+	}
+
+	public void setAutoscale_max_listeners(int autoscale_max_listeners) {
+		this.autoscale_max_listeners = autoscale_max_listeners;
+	}
+
+	public long getAutoscale_lag_high() {
+		return autoscale_lag_high;
+	}
+
+	public void setAutoscale_lag_high(long autoscale_lag_high) {
+		this.autoscale_lag_high = autoscale_lag_high;
+	}
+
+	public long getAutoscale_lag_low() {
+		return autoscale_lag_low;
+	}
+
+	public void setAutoscale_lag_low(long autoscale_lag_low) {
+		this.autoscale_lag_low = autoscale_lag_low;
+	}
+
+	public int getGateway_topic_partition() {
+		return gateway_topic_partition;
+	}
+
+	public void setGateway_topic_partition(int gateway_topic_partition) {
+		this.gateway_topic_partition = gateway_topic_partition;
+	}
+
+	public long getParallel_local_join_ms() {
+		return parallel_local_join_ms;
+	}
+
+	public void setParallel_local_join_ms(long parallel_local_join_ms) {
+		this.parallel_local_join_ms = parallel_local_join_ms;
+	}
+
+	public long getParallel_join_timeout_ms() {
+		return parallel_join_timeout_ms;
+	}
+
+	public void setParallel_join_timeout_ms(long parallel_join_timeout_ms) {
+		this.parallel_join_timeout_ms = parallel_join_timeout_ms;
+	}
+
+	public long getParallel_join_expiry_interval_ms() {
+		return parallel_join_expiry_interval_ms;
+	}
+
+	public void setParallel_join_expiry_interval_ms(long parallel_join_expiry_interval_ms) {
+		this.parallel_join_expiry_interval_ms = parallel_join_expiry_interval_ms;
+	}
+
+	public int getParallel_executor_threads() {
+		return parallel_executor_threads;
+	}
+
+	public void setParallel_executor_threads(int parallel_executor_threads) {
+		this.parallel_executor_threads = parallel_executor_threads;
+	}
+
+	public int getParallel_executor_queue_capacity() {
+		return parallel_executor_queue_capacity;
+	}
+
+	public void setParallel_executor_queue_capacity(int parallel_executor_queue_capacity) {
+		this.parallel_executor_queue_capacity = parallel_executor_queue_capacity;
+	}
+
+	public boolean isParallel_payload_by_reference() {
+		return parallel_payload_by_reference;
+	}
+
+	public void setParallel_payload_by_reference(boolean parallel_payload_by_reference) {
+		this.parallel_payload_by_reference = parallel_payload_by_reference;
+	}
+
+	public long getParallel_payload_fetch_timeout_ms() {
+		return parallel_payload_fetch_timeout_ms;
+	}
+
+	public void setParallel_payload_fetch_timeout_ms(long parallel_payload_fetch_timeout_ms) {
+		this.parallel_payload_fetch_timeout_ms = parallel_payload_fetch_timeout_ms;
+	}
+
+	public int getParallel_payload_resolver_consumers() {
+		return parallel_payload_resolver_consumers;
+	}
+
+	public void setParallel_payload_resolver_consumers(int parallel_payload_resolver_consumers) {
+		this.parallel_payload_resolver_consumers = parallel_payload_resolver_consumers;
+	}
+
+	public boolean isControl_endpoints_enabled() {
+		return control_endpoints_enabled;
+	}
+
+	public void setControl_endpoints_enabled(boolean control_endpoints_enabled) {
+		this.control_endpoints_enabled = control_endpoints_enabled;
+	}
+
 	public void logProp() {
 		Logger LOGGER = Logger.getLogger(Thread.currentThread().getStackTrace()[0].getClassName());
 
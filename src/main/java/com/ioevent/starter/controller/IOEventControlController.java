@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ioevent.starter.service.IOEventStepControlService;
+
+/**
+ * class for the controller of the runtime controls of the IOEvent steps, the
+ * controller is only registered when ioevent.control_endpoints_enabled is true
+ * and doesn't allow cross origin requests since its endpoints change the
+ * consumption of the application,
+ */
+@RestController
+public class IOEventControlController {
+
+	@Autowired
+	private IOEventStepControlService stepControlService;
+
+	/**
+	 * Method that pause the consumption of the input topics of a step,
+	 * 
+	 * @param step for the @IOEvent key or the step ID,
+	 * @return list of paused topics,
+	 */
+	@PostMapping("/IOEventSteps/{step}/pause")
+	public List<String> pauseStep(@PathVariable String step) {
+		checkStepExist(step);
+		return stepControlService.pauseStep(step);
+	}
+
+	/**
+	 * Method that resume the consumption of the input topics of a step,
+	 * 
+	 * @param step for the @IOEvent key or the step ID,
+	 * @return list of resumed topics,
+	 */
+	@PostMapping("/IOEventSteps/{step}/resume")
+	public List<String> resumeStep(@PathVariable String step) {
+		checkStepExist(step);
+		return stepControlService.resumeStep(step);
+	}
+
+	/**
+	 * Method that throttle a step to a maximum of events per second,
+	 * 
+	 * @param step for the @IOEvent key or the step ID,
+	 * @param rate for the maximum events per second,
+	 * @return list of throttled step IDs,
+	 */
+	@PostMapping("/IOEventSteps/{step}/throttle")
+	public List<String> throttleStep(@PathVariable String step, @RequestParam double rate) {
+		checkStepExist(step);
+		if (rate <= 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "throttle rate must be positive");
+		}
+		return stepControlService.throttleStep(step, rate);
+	}
+
+	/**
+	 * Method that remove the throttle of a step,
+	 * 
+	 * @param step for the @IOEvent key or the step ID,
+	 * @return list of step IDs no longer throttled,
+	 */
+	@DeleteMapping("/IOEventSteps/{step}/throttle")
+	public List<String> removeStepThrottle(@PathVariable String step) {
+		checkStepExist(step);
+		return stepControlService.throttleStep(step, 0);
+	}
+
+	/**
+	 * Method that pause the consumption of a topic,
+	 * 
+	 * @param topic for the topic name,
+	 * @return list of paused topics,
+	 */
+	@PostMapping("/IOEventTopics/{topic}/pause")
+	public List<String> pauseTopic(@PathVariable String topic) {
+		return stepControlService.pauseTopic(topic);
+	}
+
+	/**
+	 * Method that resume the consumption of a topic,
+	 * 
+	 * @param topic for the topic name,
+	 * @return list of resumed topics,
+	 */
+	@PostMapping("/IOEventTopics/{topic}/resume")
+	public List<String> resumeTopic(@PathVariable String topic) {
+		return stepControlService.resumeTopic(topic);
+	}
+
+	private void checkStepExist(String step) {
+		if (stepControlService.findSteps(step).isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown IOEvent step " + step);
+		}
+	}
+}
@@ -27,6 +27,7 @@ package com.ioevent.starter.controller;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.concurrent.ExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +36,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ioevent.starter.domain.IOEventBpmnPart;
+import com.ioevent.starter.configuration.kafka.IOEventParallelJoinStats;
+import com.ioevent.starter.domain.IOEventListenerMetrics;
+import com.ioevent.starter.domain.IOEventParallelJoinMetrics;
+import com.ioevent.starter.handler.RecordsHandler;
+import com.ioevent.starter.listener.IOEventParrallelListener;
+import com.ioevent.starter.listener.Listener;
 import com.ioevent.starter.service.TopicServices;
 
 /**
@@ -52,6 +59,18 @@ public class IOEventController {
 	
 	@Autowired
 	private Set<String> apiKeys;
+
+	@Autowired
+	private List<Listener> listeners;
+
+	@Autowired
+	private IOEventParallelJoinStats joinStats;
+
+	@Autowired
+	private RecordsHandler recordsHandler;
+
+	@Autowired
+	private IOEventParrallelListener parallelListener;
 	/**
 	 * Method that return all BPMN parts of processes,
 	 * 
@@ -80,4 +99,29 @@ public class IOEventController {
 	public List<String> getIOEventApiKeys() {
 		return new ArrayList<>(apiKeys);
 	}
+
+	/**
+	 * Method that return the metrics of the listeners, in flight records and drain
+	 * time on shutdown,
+	 * 
+	 * @return list of IOEventListenerMetrics Object,
+	 */
+	@GetMapping("/IOEventListenersMetrics")
+	public List<IOEventListenerMetrics> getIOEventListenersMetrics() {
+		synchronized (listeners) {
+			return listeners.stream().map(IOEventListenerMetrics::new).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Method that return the metrics of the parallel gateway joins, pending joins
+	 * and their age, expired joins, joins completed in memory and executor of the
+	 * completed joins,
+	 * 
+	 * @return IOEventParallelJoinMetrics Object,
+	 */
+	@GetMapping("/IOEventParallelJoinsMetrics")
+	public IOEventParallelJoinMetrics getIOEventParallelJoinsMetrics() {
+		return new IOEventParallelJoinMetrics(joinStats, recordsHandler.getLocalJoinTable(), parallelListener);
+	}
 }
@@ -40,7 +40,9 @@ import com.ioevent.starter.annotations.OutputEvent;
  * MethodName for method name which annotated by IOEvent, - stepName for the
  * task name, - workflow for the process name, - ioEventType for the event type,
  * - InputEvent for the Input events of the task/part, - outputEvent for the
- * output event of the task/part,
+ * output event of the task/part, - paused if the consumption of the events of
+ * the task is paused, - throttle for the maximum events per second processed by
+ * the task, 0 if the task is not throttled,
  */
 public class IOEventBpmnPart {
 	private String id;
@@ -57,6 +59,8 @@ public class IOEventBpmnPart {
 	private int processCount = 0;
 	private String methodReturnType;
 	private String generalTopic;
+	private boolean paused = false;
+	private double throttle = 0;
 	
 
 	
@@ -182,6 +186,22 @@ public class IOEventBpmnPart {
 	public void setGeneralTopic(String generalTopic) {
 		this.generalTopic = generalTopic;
 	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	public void setPaused(boolean paused) {
+		this.paused = paused;
+	}
+
+	public double getThrottle() {
+		return throttle;
+	}
+
+	public void setThrottle(double throttle) {
+		this.throttle = throttle;
+	}
 	public Map<String, String> addInput(IOEvent ioEvent,IOFlow ioFlow, String topicPrefix) {
 		Map<String, String> result = new HashMap<>();
 		for (InputEvent input : ioEvent.input()) {
@@ -270,7 +290,8 @@ public class IOEventBpmnPart {
 		return "IOEventBpmnPart [id=" + id + ", apiKey=" + apiKey + ", ioAppName=" + ioAppName
 				+ ", methodQualifiedName=" + methodQualifiedName + ", stepName=" + stepName + ", workflow=" + workflow
 				+ ", ioEventType=" + ioEventType + ", ioeventGatway=" + ioeventGatway + ", inputEvent=" + inputEvent
-				+ ", outputEvent=" + outputEvent + ", processCount=" + processCount + "]";
+				+ ", outputEvent=" + outputEvent + ", processCount=" + processCount + ", paused=" + paused
+				+ ", throttle=" + throttle + "]";
 	}
 
 	public IOEventExceptionInformation getIoeventException() {
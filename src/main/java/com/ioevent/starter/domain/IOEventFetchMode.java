@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.domain;
+
+/**
+ * enum which describe the fetch tuning of the listeners consumers :
+ * - LATENCY : small batches returned as soon as records are available,
+ * - THROUGHPUT : large batches, the broker waits for more data before answering a fetch,
+ * - DEFAULT : the mode set by the ioevent.fetch_mode property.
+ **/
+public enum IOEventFetchMode {
+	LATENCY(100, 1, 10, 10, 200), THROUGHPUT(1000, 64 * 1024, 200, 100, 1000), DEFAULT(100, 1, 10, 10, 200);
+
+	private final int maxPollRecords;
+	private final int fetchMinBytes;
+	private final int fetchMaxWaitMs;
+	private final long minPollTimeoutMs;
+	private final long maxPollTimeoutMs;
+
+	IOEventFetchMode(int maxPollRecords, int fetchMinBytes, int fetchMaxWaitMs, long minPollTimeoutMs,
+			long maxPollTimeoutMs) {
+		this.maxPollRecords = maxPollRecords;
+		this.fetchMinBytes = fetchMinBytes;
+		this.fetchMaxWaitMs = fetchMaxWaitMs;
+		this.minPollTimeoutMs = minPollTimeoutMs;
+		this.maxPollTimeoutMs = maxPollTimeoutMs;
+	}
+
+	public int getMaxPollRecords() {
+		return maxPollRecords;
+	}
+
+	public int getFetchMinBytes() {
+		return fetchMinBytes;
+	}
+
+	public int getFetchMaxWaitMs() {
+		return fetchMaxWaitMs;
+	}
+
+	/** poll timeout used while records keep arriving **/
+	public long getMinPollTimeoutMs() {
+		return minPollTimeoutMs;
+	}
+
+	/** poll timeout reached by an idle listener **/
+	public long getMaxPollTimeoutMs() {
+		return maxPollTimeoutMs;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.domain;
+
+import java.util.Objects;
+
+/**
+ * Key of the join of a parallel gateway : the correlation ID of the process
+ * instance and the ID of the gateway step. The key is sent as a String on the
+ * gateway events topic so the events of a join are grouped without
+ * repartition.
+ */
+public final class IOEventGatewayKey {
+
+	private static final String SEPARATOR = "|";
+
+	private final String correlationId;
+	private final String gatewayId;
+
+	public IOEventGatewayKey(String correlationId, String gatewayId) {
+		this.correlationId = correlationId;
+		this.gatewayId = gatewayId;
+	}
+
+	/**
+	 * method to build the join key of a parallel event, the gateway is identified
+	 * by its step ID or by its class and method names for steps without ID,
+	 * 
+	 * @param parallelEventInfo for the parallel event information,
+	 * @return IOEventGatewayKey,
+	 */
+	public static IOEventGatewayKey of(IOEventParallelEventInformation parallelEventInfo) {
+		Object correlationId = parallelEventInfo.getHeaders().get(IOEventHeaders.CORRELATION_ID.toString());
+		String gatewayId = (parallelEventInfo.getStepId() != null) ? parallelEventInfo.getStepId()
+				: parallelEventInfo.getClassName() + "#" + parallelEventInfo.getMethod();
+		return new IOEventGatewayKey(Objects.toString(correlationId, null), gatewayId);
+	}
+
+	public String getCorrelationId() {
+		return correlationId;
+	}
+
+	public String getGatewayId() {
+		return gatewayId;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof IOEventGatewayKey)) {
+			return false;
+		}
+		IOEventGatewayKey other = (IOEventGatewayKey) o;
+		return Objects.equals(correlationId, other.correlationId) && Objects.equals(gatewayId, other.gatewayId);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(correlationId, gatewayId);
+	}
+
+	/**
+	 * the String form of the key sent as the record key,
+	 */
+	@Override
+	public String toString() {
+		return correlationId + SEPARATOR + gatewayId;
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.domain;
+
+import com.ioevent.starter.listener.Listener;
+
+/**
+ * this class has the metrics of a listener : - topic for the topics consumed by
+ * the listener, - inFlight for the records handed to the executor and not
+ * processed yet, - pendingOffsets for the records consumed and not committed
+ * yet, - paused if the partitions of the listener are paused, - terminated if
+ * the listener is closed, - drainTimeMs for the time spent draining the in
+ * flight records on shutdown, -1 while the listener is running, - accepted and
+ * skipped for the records polled dispatched to a method or filtered out, -
+ * skippedRatio for the ratio of skipped records, - lag for the records not
+ * consumed yet from the partitions of the listener
+ */
+public class IOEventListenerMetrics {
+
+	private String topic;
+	private int inFlight;
+	private int pendingOffsets;
+	private boolean paused;
+	private boolean terminated;
+	private long drainTimeMs;
+	private long accepted;
+	private long skipped;
+	private double skippedRatio;
+	private long lag;
+
+	public IOEventListenerMetrics() {
+		super();
+	}
+
+	public IOEventListenerMetrics(Listener listener) {
+		super();
+		this.topic = listener.getTopic();
+		this.inFlight = listener.getQueueDepth();
+		this.pendingOffsets = listener.getOffsetTracker().getPendingCount();
+		this.paused = listener.isPaused();
+		this.terminated = listener.isTerminated();
+		this.drainTimeMs = listener.getDrainTimeMs();
+		this.accepted = listener.getRecordFilter().getAccepted();
+		this.skipped = listener.getRecordFilter().getSkipped();
+		this.skippedRatio = listener.getRecordFilter().getSkippedRatio();
+		this.lag = listener.getLag();
+	}
+
+	public String getTopic() {
+		return topic;
+	}
+
+	public int getInFlight() {
+		return inFlight;
+	}
+
+	public int getPendingOffsets() {
+		return pendingOffsets;
+	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	public boolean isTerminated() {
+		return terminated;
+	}
+
+	public long getDrainTimeMs() {
+		return drainTimeMs;
+	}
+
+	public long getAccepted() {
+		return accepted;
+	}
+
+	public long getSkipped() {
+		return skipped;
+	}
+
+	public double getSkippedRatio() {
+		return skippedRatio;
+	}
+
+	public long getLag() {
+		return lag;
+	}
+}
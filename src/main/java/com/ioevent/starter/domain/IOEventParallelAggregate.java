@@ -0,0 +1,393 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Binary aggregate of the events joined by a parallel gateway, kept in the
+ * Kafka Streams state store. The aggregate starts with a preamble holding the
+ * number of inputs required by the gateway and the bitmask of the arrived
+ * inputs, each input being identified by its index in the required inputs,
+ * followed by the gateway metadata (step ID, class and method names, listener
+ * topic and required inputs) written once, and by one record per arrived
+ * branch (input index, payload and headers). Merging a branch and checking the
+ * completion of the join only read the bitmasks, a new branch is appended as
+ * raw bytes after the existing ones, the branches already arrived are never
+ * decoded or written again until the join is read with
+ * toParallelEventInformation.
+ */
+public final class IOEventParallelAggregate {
+
+	/** maximum number of inputs of a parallel gateway tracked by the bitmask **/
+	public static final int MAX_INPUTS = Long.SIZE;
+
+	private static final byte VERSION = 2;
+	private static final int REQUIRED_COUNT_OFFSET = 1;
+	private static final int ARRIVED_MASK_OFFSET = 2;
+	private static final int METADATA_LENGTH_OFFSET = 10;
+	private static final int PREAMBLE_SIZE = 14;
+	private static final IOEventParallelAggregate EMPTY = new IOEventParallelAggregate(new byte[0]);
+
+	private final byte[] bytes;
+
+	private IOEventParallelAggregate(byte[] bytes) {
+		this.bytes = bytes;
+	}
+
+	public static IOEventParallelAggregate empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * method to wrap the bytes of an aggregate read from the state store,
+	 * 
+	 * @param bytes for the serialized aggregate,
+	 * @return IOEventParallelAggregate,
+	 */
+	public static IOEventParallelAggregate fromBytes(byte[] bytes) {
+		if (bytes == null || bytes.length == 0) {
+			return EMPTY;
+		}
+		if (bytes[0] != VERSION) {
+			throw new IllegalArgumentException("unknown parallel aggregate version " + bytes[0]);
+		}
+		return new IOEventParallelAggregate(bytes);
+	}
+
+	/**
+	 * method to build the aggregate of a single branch from the parallel event
+	 * information sent when the branch arrived, the inputs which are not required
+	 * by the gateway are ignored,
+	 * 
+	 * @param branch for the parallel event information of the branch,
+	 * @return IOEventParallelAggregate,
+	 */
+	public static IOEventParallelAggregate of(IOEventParallelEventInformation branch) {
+		List<String> inputRequired = (branch.getInputRequired() != null) ? branch.getInputRequired()
+				: new ArrayList<>();
+		if (inputRequired.size() > MAX_INPUTS) {
+			throw new IllegalArgumentException(
+					"parallel gateway can not join more than " + MAX_INPUTS + " inputs : " + inputRequired);
+		}
+		try {
+			ByteArrayOutputStream metadataBytes = new ByteArrayOutputStream();
+			DataOutputStream metadata = new DataOutputStream(metadataBytes);
+			writeString(metadata, branch.getStepId());
+			writeString(metadata, branch.getClassName());
+			writeString(metadata, branch.getMethod());
+			writeString(metadata, branch.getListenerTopic());
+			metadata.writeInt(inputRequired.size());
+			for (String input : inputRequired) {
+				writeString(metadata, input);
+			}
+			ByteArrayOutputStream branchBytes = new ByteArrayOutputStream();
+			DataOutputStream branches = new DataOutputStream(branchBytes);
+			long arrivedMask = 0;
+			for (String input : branch.getInputsArrived()) {
+				int index = inputRequired.indexOf(input);
+				if (index < 0 || (arrivedMask & (1L << index)) != 0) {
+					continue;
+				}
+				arrivedMask |= 1L << index;
+				branches.writeByte(index);
+				writeString(branches, Objects.toString(branch.getPayloadMap().get(input), null));
+				branches.writeInt(branch.getHeaders().size());
+				for (Map.Entry<String, Object> header : branch.getHeaders().entrySet()) {
+					writeString(branches, header.getKey());
+					writeString(branches, Objects.toString(header.getValue(), null));
+				}
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(out);
+			data.writeByte(VERSION);
+			data.writeByte(inputRequired.size());
+			data.writeLong(arrivedMask);
+			data.writeInt(metadataBytes.size());
+			metadataBytes.writeTo(data);
+			branchBytes.writeTo(data);
+			data.flush();
+			return new IOEventParallelAggregate(out.toByteArray());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * method to append the branches of the aggregate given to this aggregate, the
+	 * branches already arrived are ignored,
+	 * 
+	 * @param branch for the aggregate of the arrived branch,
+	 * @return the merged aggregate,
+	 */
+	public IOEventParallelAggregate merge(IOEventParallelAggregate branch) {
+		if (isEmpty()) {
+			return branch;
+		}
+		if (branch.isEmpty()) {
+			return this;
+		}
+		long arrivedMask = getArrivedMask();
+		long newInputs = branch.getArrivedMask() & ~arrivedMask;
+		if (newInputs == 0) {
+			return this;
+		}
+		ByteBuffer branchBuffer = ByteBuffer.wrap(branch.bytes);
+		int start = branch.branchesOffset();
+		branchBuffer.position(start);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + branch.bytes.length - start);
+		out.write(bytes, 0, bytes.length);
+		while (branchBuffer.hasRemaining()) {
+			int recordStart = branchBuffer.position();
+			int index = branchBuffer.get();
+			skipBranchBody(branchBuffer);
+			if ((newInputs & (1L << index)) != 0) {
+				out.write(branch.bytes, recordStart, branchBuffer.position() - recordStart);
+			}
+		}
+		byte[] merged = out.toByteArray();
+		ByteBuffer.wrap(merged).putLong(ARRIVED_MASK_OFFSET, arrivedMask | newInputs);
+		return new IOEventParallelAggregate(merged);
+	}
+
+	/**
+	 * method to build the completion marker of a completed join, kept in the
+	 * store in place of the join : the preamble and the metadata are kept so the
+	 * marker is still complete and its gateway timeout can be read, the branch
+	 * records are dropped,
+	 * 
+	 * @return the aggregate without its branch records,
+	 */
+	public IOEventParallelAggregate toCompletionMarker() {
+		if (isEmpty()) {
+			return this;
+		}
+		int branchesOffset = branchesOffset();
+		return (branchesOffset == bytes.length) ? this
+				: new IOEventParallelAggregate(Arrays.copyOf(bytes, branchesOffset));
+	}
+
+	/**
+	 * method returns the bitmask of the arrived inputs, the bit of an input is
+	 * its index in the required inputs,
+	 * 
+	 * @return long bitmask,
+	 */
+	public long getArrivedMask() {
+		return isEmpty() ? 0L : ByteBuffer.wrap(bytes).getLong(ARRIVED_MASK_OFFSET);
+	}
+
+	/**
+	 * method returns true if all the inputs required by the gateway are arrived,
+	 * 
+	 * @return boolean,
+	 */
+	public boolean isComplete() {
+		if (isEmpty()) {
+			return false;
+		}
+		int requiredCount = bytes[REQUIRED_COUNT_OFFSET];
+		long requiredMask = (requiredCount == MAX_INPUTS) ? -1L : (1L << requiredCount) - 1;
+		return getArrivedMask() == requiredMask;
+	}
+
+	/**
+	 * method returns the names of the arrived inputs, only the input indexes are
+	 * read, the payloads and headers are skipped,
+	 * 
+	 * @return list of input names in arrival order,
+	 */
+	public List<String> getInputsArrived() {
+		List<String> arrived = new ArrayList<>();
+		if (isEmpty()) {
+			return arrived;
+		}
+		List<String> inputRequired = getInputRequired();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		buffer.position(branchesOffset());
+		while (buffer.hasRemaining()) {
+			arrived.add(inputRequired.get(buffer.get()));
+			skipBranchBody(buffer);
+		}
+		return arrived;
+	}
+
+	/**
+	 * method returns the names of the inputs required by the gateway, read from
+	 * the metadata,
+	 * 
+	 * @return list of input names,
+	 */
+	public List<String> getInputRequired() {
+		List<String> inputRequired = new ArrayList<>();
+		if (isEmpty()) {
+			return inputRequired;
+		}
+		ByteBuffer buffer = metadataBuffer(4);
+		int inputRequiredCount = buffer.getInt();
+		for (int i = 0; i < inputRequiredCount; i++) {
+			inputRequired.add(readString(buffer));
+		}
+		return inputRequired;
+	}
+
+	public String getStepId() {
+		return isEmpty() ? null : readString(metadataBuffer(0));
+	}
+
+	public String getClassName() {
+		return isEmpty() ? null : readString(metadataBuffer(1));
+	}
+
+	public String getMethod() {
+		return isEmpty() ? null : readString(metadataBuffer(2));
+	}
+
+	/**
+	 * method to decode the aggregate, the payloads are mapped by input name and
+	 * the headers of the last arrived branches override the previous ones,
+	 * 
+	 * @return IOEventParallelEventInformation,
+	 */
+	public IOEventParallelEventInformation toParallelEventInformation() {
+		IOEventParallelEventInformation info = new IOEventParallelEventInformation();
+		if (isEmpty()) {
+			return info;
+		}
+		ByteBuffer buffer = metadataBuffer(0);
+		info.setStepId(readString(buffer));
+		info.setClassName(readString(buffer));
+		info.setMethod(readString(buffer));
+		info.setListenerTopic(readString(buffer));
+		int inputRequiredCount = buffer.getInt();
+		List<String> inputRequired = new ArrayList<>(inputRequiredCount);
+		for (int i = 0; i < inputRequiredCount; i++) {
+			inputRequired.add(readString(buffer));
+		}
+		info.setInputRequired(inputRequired);
+		List<String> inputsArrived = new ArrayList<>();
+		Map<String, Object> payloadMap = new HashMap<>();
+		Map<String, Object> headers = new HashMap<>();
+		while (buffer.hasRemaining()) {
+			String input = inputRequired.get(buffer.get());
+			String payload = readString(buffer);
+			if (inputsArrived.isEmpty()) {
+				info.setValue(payload);
+			}
+			inputsArrived.add(input);
+			payloadMap.put(input, payload);
+			int headerCount = buffer.getInt();
+			for (int i = 0; i < headerCount; i++) {
+				headers.put(readString(buffer), readString(buffer));
+			}
+		}
+		info.setInputsArrived(inputsArrived);
+		info.setPayloadMap(payloadMap);
+		info.setHeaders(headers);
+		return info;
+	}
+
+	public boolean isEmpty() {
+		return bytes.length == 0;
+	}
+
+	/**
+	 * the serialized aggregate, the array is shared and must not be modified,
+	 * 
+	 * @return byte array,
+	 */
+	public byte[] toBytes() {
+		return bytes;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return (o instanceof IOEventParallelAggregate) && Arrays.equals(bytes, ((IOEventParallelAggregate) o).bytes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(bytes);
+	}
+
+	/**
+	 * buffer positioned on a field of the metadata, after the strings preceding
+	 * it,
+	 * 
+	 * @param skippedStrings for the number of metadata strings to skip,
+	 * @return ByteBuffer,
+	 */
+	private ByteBuffer metadataBuffer(int skippedStrings) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		buffer.position(PREAMBLE_SIZE);
+		for (int i = 0; i < skippedStrings; i++) {
+			skipString(buffer);
+		}
+		return buffer;
+	}
+
+	private int branchesOffset() {
+		return PREAMBLE_SIZE + ByteBuffer.wrap(bytes).getInt(METADATA_LENGTH_OFFSET);
+	}
+
+	private static void skipBranchBody(ByteBuffer buffer) {
+		skipString(buffer);
+		int headerCount = buffer.getInt();
+		for (int i = 0; i < headerCount * 2; i++) {
+			skipString(buffer);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(encoded.length);
+		out.write(encoded);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+				StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	private static void skipString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length > 0) {
+			buffer.position(buffer.position() + length);
+		}
+	}
+}
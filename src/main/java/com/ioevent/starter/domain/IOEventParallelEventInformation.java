@@ -31,7 +31,10 @@ import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.handler.IOEventPayloadReference;
 import com.ioevent.starter.handler.IOEventRecordInfo;
 
 /**
@@ -40,7 +43,8 @@ import com.ioevent.starter.handler.IOEventRecordInfo;
  * which annotated by the @IOEvent annotation, - InputRequired for the Input
  * event required to validate the parallel event , - inputsArrived for the
  * input event arrived, - listenerTopic for topic name which the listener is
- * subscribed, - headers for the header's info sent by events
+ * subscribed, - headers for the header's info sent by events, - timeout true
+ * when the join expired before all the required inputs arrived
  */
 public class IOEventParallelEventInformation {
 
@@ -50,8 +54,11 @@ public class IOEventParallelEventInformation {
 	private String listenerTopic;
 	private String method;
 	private String className;
+	private String stepId;
 	private List<String> inputRequired;
 	private Map<String, Object> headers = new HashMap<>();
+	private boolean timeout;
+	private transient IOEventPayloadReference payloadReference;
 
 	public IOEventParallelEventInformation() {
 		super();
@@ -80,7 +87,10 @@ public class IOEventParallelEventInformation {
 		this.listenerTopic = consumerRecord.topic();
 		this.method = pair.getMethod().getName();
 		this.className = pair.getBean().getClass().getName();
+		this.stepId = pair.getStepId();
 		this.inputRequired = inputRequired;
+		this.payloadReference = new IOEventPayloadReference(consumerRecord.topic(), consumerRecord.partition(),
+				consumerRecord.offset());
 		headers.put("AppName", appName);
 		consumerRecord.headers().forEach(header -> this.headers.put(header.key(), new String(header.value())));
 	}
@@ -133,6 +143,14 @@ public class IOEventParallelEventInformation {
 		this.className = className;
 	}
 
+	public String getStepId() {
+		return stepId;
+	}
+
+	public void setStepId(String stepId) {
+		this.stepId = stepId;
+	}
+
 	public List<String> getInputRequired() {
 		return inputRequired;
 	}
@@ -149,10 +167,52 @@ public class IOEventParallelEventInformation {
 		this.headers = headers;
 	}
 
+	public boolean isTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(boolean timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * reference of the consumed record of a branch, null for the events which are
+	 * not built from a consumed record,
+	 */
+	@JsonIgnore
+	public IOEventPayloadReference getPayloadReference() {
+		return payloadReference;
+	}
+
+	/**
+	 * method returns a copy of the branch where the payloads are replaced by the
+	 * reference of the consumed record, carried in the IOEventPayloadRef-
+	 * header of each input, the branch itself is returned when it has no record
+	 * reference,
+	 * 
+	 * @return IOEventParallelEventInformation,
+	 */
+	public IOEventParallelEventInformation withPayloadReference() {
+		if (payloadReference == null) {
+			return this;
+		}
+		Map<String, Object> referencedPayloads = new HashMap<>();
+		Map<String, Object> referencedHeaders = new HashMap<>(headers);
+		for (String input : payloadMap.keySet()) {
+			referencedPayloads.put(input, null);
+			referencedHeaders.put(IOEventPayloadReference.headerName(input), payloadReference.toString());
+		}
+		IOEventParallelEventInformation reference = new IOEventParallelEventInformation(null, inputsArrived,
+				referencedPayloads, listenerTopic, method, className, inputRequired, referencedHeaders);
+		reference.setStepId(stepId);
+		return reference;
+	}
+
 	@Override
 	public String toString() {
 		return "IOEventParallelEventInformation [value=" + value + ", inputsArrived=" + inputsArrived
 				+ ", listenerTopic=" + listenerTopic + ", method=" + method + ", className=" + className
+				+ ", stepId=" + stepId
 				+ ", inputRequired=" + inputRequired + ", headers=" + headers + "]";
 	}
 
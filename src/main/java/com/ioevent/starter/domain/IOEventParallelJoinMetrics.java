@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.domain;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import com.ioevent.starter.configuration.kafka.IOEventParallelJoinStats;
+import com.ioevent.starter.handler.IOEventLocalJoinTable;
+import com.ioevent.starter.listener.IOEventParrallelListener;
+
+/**
+ * this class has the metrics of the parallel gateway joins : - pendingJoins for
+ * the incomplete joins kept in the Kafka Streams state store, -
+ * oldestPendingAgeMs for the age of the oldest incomplete join, - expiredJoins
+ * for the joins expired before all their inputs arrived, - localPendingJoins
+ * for the joins held in memory waiting for branches consumed by the instance, -
+ * localJoins for the joins completed in memory, - forwardedBranches for the
+ * branches held in memory then sent to the Kafka Streams join, -
+ * activeCompletions and queuedCompletions for the completed joins running or
+ * waiting for a thread of the parallel gateway executor, - completedCompletions
+ * and failedCompletions for the methods of completed joins over or failed
+ */
+public class IOEventParallelJoinMetrics {
+
+	private long pendingJoins;
+	private long oldestPendingAgeMs;
+	private long expiredJoins;
+	private int localPendingJoins;
+	private long localJoins;
+	private long forwardedBranches;
+	private int activeCompletions;
+	private int queuedCompletions;
+	private long completedCompletions;
+	private long failedCompletions;
+
+	public IOEventParallelJoinMetrics() {
+		super();
+	}
+
+	public IOEventParallelJoinMetrics(IOEventParallelJoinStats joinStats, IOEventLocalJoinTable localJoinTable,
+			IOEventParrallelListener parallelListener) {
+		super();
+		this.pendingJoins = joinStats.getPendingJoins();
+		this.oldestPendingAgeMs = joinStats.getOldestPendingAgeMs();
+		this.expiredJoins = joinStats.getExpiredJoins();
+		if (localJoinTable != null) {
+			this.localPendingJoins = localJoinTable.getPendingCount();
+			this.localJoins = localJoinTable.getLocalJoins();
+			this.forwardedBranches = localJoinTable.getForwardedBranches();
+		}
+		ThreadPoolExecutor completionExecutor = parallelListener.getCompletionExecutor();
+		this.activeCompletions = completionExecutor.getActiveCount();
+		this.queuedCompletions = completionExecutor.getQueue().size();
+		this.completedCompletions = completionExecutor.getCompletedTaskCount();
+		this.failedCompletions = parallelListener.getFailedCompletions();
+	}
+
+	public long getPendingJoins() {
+		return pendingJoins;
+	}
+
+	public long getOldestPendingAgeMs() {
+		return oldestPendingAgeMs;
+	}
+
+	public long getExpiredJoins() {
+		return expiredJoins;
+	}
+
+	public int getLocalPendingJoins() {
+		return localPendingJoins;
+	}
+
+	public long getLocalJoins() {
+		return localJoins;
+	}
+
+	public long getForwardedBranches() {
+		return forwardedBranches;
+	}
+
+	public int getActiveCompletions() {
+		return activeCompletions;
+	}
+
+	public int getQueuedCompletions() {
+		return queuedCompletions;
+	}
+
+	public long getCompletedCompletions() {
+		return completedCompletions;
+	}
+
+	public long getFailedCompletions() {
+		return failedCompletions;
+	}
+
+}
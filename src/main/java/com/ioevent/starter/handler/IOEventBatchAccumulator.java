@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ioevent.starter.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Accumulator of the events of an @IOBatch method, a batch is flushed when it
+ * reaches the maximum size or when the maximum wait time elapsed since its
+ * first event was added.
+ */
+public class IOEventBatchAccumulator {
+
+	private final int maxSize;
+	private final long maxWaitMs;
+	private final ScheduledExecutorService timer;
+	private final Consumer<List<IOEventBatchItem>> flusher;
+	private List<IOEventBatchItem> items = new ArrayList<>();
+	private long generation = 0;
+
+	/**
+	 * batch accumulator constructor
+	 * 
+	 * @param maxSize   for the maximum number of events of a batch,
+	 * @param maxWaitMs for the maximum wait time of a batch,
+	 * @param timer     for the scheduler of the wait time flushes,
+	 * @param flusher   for the consumer of the flushed batches,
+	 */
+	public IOEventBatchAccumulator(int maxSize, long maxWaitMs, ScheduledExecutorService timer,
+			Consumer<List<IOEventBatchItem>> flusher) {
+		this.maxSize = maxSize;
+		this.maxWaitMs = Math.max(0, maxWaitMs);
+		this.timer = timer;
+		this.flusher = flusher;
+	}
+
+	/**
+	 * add an event to the current batch,
+	 * 
+	 * @param item for the event to add,
+	 */
+	public synchronized void add(IOEventBatchItem item) {
+		items.add(item);
+		if (items.size() >= maxSize) {
+			flush();
+		} else if (items.size() == 1) {
+			long batchGeneration = generation;
+			timer.schedule(() -> flushAfterWait(batchGeneration), maxWaitMs, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/** hand the current batch to the flusher if it's not empty **/
+	public synchronized void flush() {
+		if (items.isEmpty()) {
+			return;
+		}
+		List<IOEventBatchItem> batch = items;
+		items = new ArrayList<>();
+		generation++;
+		flusher.accept(batch);
+	}
+
+	private synchronized void flushAfterWait(long batchGeneration) {
+		if (batchGeneration == generation) {
+			flush();
+		}
+	}
+
+	public synchronized int size() {
+		return items.size();
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ioevent.starter.handler;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ioevent.starter.annotations.IOResponse;
+import com.ioevent.starter.listener.IOEventInFlightWindow;
+import com.ioevent.starter.listener.IOEventOffsetTracker;
+import com.ioevent.starter.service.IOEventContextHolder;
+
+/**
+ * Event accumulated in the batch of an @IOBatch method, with the record info
+ * used by the aspects to send the output event of this event and the listener
+ * window and offset tracker to notify once the batch is processed.
+ */
+public class IOEventBatchItem {
+
+	private final ConsumerRecord<String, String> consumerRecord;
+	private final IOEventRecordInfo recordInfo;
+	private final IOEventInFlightWindow inFlightWindow;
+	private final IOEventOffsetTracker offsetTracker;
+	private Object payload;
+
+	public IOEventBatchItem(ConsumerRecord<String, String> consumerRecord, IOEventRecordInfo recordInfo,
+			IOEventInFlightWindow inFlightWindow, IOEventOffsetTracker offsetTracker) {
+		this.consumerRecord = consumerRecord;
+		this.recordInfo = recordInfo;
+		this.inFlightWindow = inFlightWindow;
+		this.offsetTracker = offsetTracker;
+	}
+
+	/**
+	 * method returns the result of the batch method for the event at the index
+	 * given : the element of the returned list when the method returns one result
+	 * per event, the event payload when the method returns nothing, else the
+	 * returned object,
+	 * 
+	 * @param returnObject for the object returned by the batch method,
+	 * @param batch        for the events of the batch,
+	 * @param index        for the index of the event in the batch,
+	 * @return the result of the event,
+	 */
+	public static Object resultOf(Object returnObject, List<IOEventBatchItem> batch, int index) {
+		if (returnObject == null) {
+			return new IOResponse<>(null, batch.get(index).getPayload());
+		}
+		if (returnObject instanceof List && ((List<?>) returnObject).size() == batch.size()) {
+			Object result = ((List<?>) returnObject).get(index);
+			return (result != null) ? result : new IOResponse<>(null, batch.get(index).getPayload());
+		}
+		return returnObject;
+	}
+
+	/**
+	 * method to run the handler given once for each event of the batch being
+	 * processed by an @IOBatch method, with the context of the event set and its
+	 * result, the batch context is unloaded while the handler runs so the aspects
+	 * called by the handler process a single event, and restored afterwards,
+	 * 
+	 * @param returnObject for the object returned by the batch method,
+	 * @param handler      for the handler of each event,
+	 * @return false if no batch is being processed,
+	 */
+	public static boolean forEachItem(Object returnObject, ItemHandler handler)
+			throws ParseException, JsonProcessingException, InterruptedException, ExecutionException {
+		List<IOEventBatchItem> batch = IOEventContextHolder.getBatchContext();
+		if (batch == null) {
+			return false;
+		}
+		IOEventContextHolder.unloadBatch();
+		try {
+			for (int i = 0; i < batch.size(); i++) {
+				IOEventContextHolder.setContext(batch.get(i).getRecordInfo());
+				handler.handle(batch.get(i), resultOf(returnObject, batch, i));
+			}
+		} finally {
+			IOEventContextHolder.setBatchContext(batch);
+		}
+		return true;
+	}
+
+	/**
+	 * handler of an event of a batch, called by the aspects to send the output
+	 * event of each event
+	 */
+	@FunctionalInterface
+	public interface ItemHandler {
+
+		void handle(IOEventBatchItem item, Object result)
+				throws ParseException, JsonProcessingException, InterruptedException, ExecutionException;
+	}
+
+	/** notify the listener that the event is processed **/
+	public void release() {
+		inFlightWindow.release();
+		offsetTracker.complete(consumerRecord);
+	}
+
+	/**
+	 * release the listener window of an event that won't be processed, its offset
+	 * is not committed
+	 **/
+	public void abandon() {
+		inFlightWindow.release();
+	}
+
+	public ConsumerRecord<String, String> getConsumerRecord() {
+		return consumerRecord;
+	}
+
+	public IOEventRecordInfo getRecordInfo() {
+		return recordInfo;
+	}
+
+	public Object getPayload() {
+		return payload;
+	}
+
+	public void setPayload(Object payload) {
+		this.payload = payload;
+	}
+}
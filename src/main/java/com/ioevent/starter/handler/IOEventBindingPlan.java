@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import com.ioevent.starter.annotations.IOHeader;
+import com.ioevent.starter.annotations.IOHeaders;
+import com.ioevent.starter.annotations.IOPayload;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Binding plan of an @IOEvent method, compiled once from the method parameter
+ * annotations : each parameter is bound either to the payload of the event
+ * (parameters annotated with @IOPayload or without IOEvent annotation), to a
+ * single header (@IOHeader) or to the whole headers map (@IOHeaders). The
+ * method is invoked through a MethodHandle taking the target and the arguments
+ * array.
+ */
+@Slf4j
+public class IOEventBindingPlan {
+
+	/** kind of value bound to a method parameter **/
+	public enum BindingType {
+		PAYLOAD, HEADER, HEADERS
+	}
+
+	/** binding of a single method parameter **/
+	public static final class ParameterBinding {
+		private final BindingType type;
+		private final Class<?> parameterType;
+		private final String headerName;
+		private final int payloadIndex;
+		private final Type elementType;
+
+		ParameterBinding(BindingType type, Class<?> parameterType, String headerName, int payloadIndex,
+				Type elementType) {
+			this.type = type;
+			this.parameterType = parameterType;
+			this.headerName = headerName;
+			this.payloadIndex = payloadIndex;
+			this.elementType = elementType;
+		}
+
+		public BindingType getType() {
+			return type;
+		}
+
+		public Class<?> getParameterType() {
+			return parameterType;
+		}
+
+		public String getHeaderName() {
+			return headerName;
+		}
+
+		/**
+		 * index of the gateway input payload bound to the parameter , 0 when
+		 * the @IOPayload index is not specified
+		 */
+		public int getPayloadIndex() {
+			return payloadIndex;
+		}
+
+		/**
+		 * type of the elements of a List parameter, used to bind the values of a
+		 * batch, the parameter type for the other parameters
+		 */
+		public Type getElementType() {
+			return elementType;
+		}
+	}
+
+	private final Method method;
+	private final ParameterBinding[] bindings;
+	private final MethodHandle invoker;
+
+	private IOEventBindingPlan(Method method) {
+		this.method = method;
+		this.bindings = compileBindings(method);
+		this.invoker = compileInvoker(method);
+	}
+
+	/**
+	 * method to compile the binding plan of a method,
+	 *
+	 * @param method for the @IOEvent method,
+	 * @return IOEventBindingPlan,
+	 */
+	public static IOEventBindingPlan of(Method method) {
+		return new IOEventBindingPlan(method);
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public ParameterBinding[] getBindings() {
+		return bindings;
+	}
+
+	/**
+	 * invoke the method on the target with the bound arguments, the exceptions
+	 * thrown by the method are wrapped in an InvocationTargetException as
+	 * with Method.invoke
+	 *
+	 * @param target for the bean on which the method is invoked,
+	 * @param args   for the arguments prepared from the binding plan,
+	 * @return the object returned by the method,
+	 * @throws IllegalAccessException
+	 * @throws InvocationTargetException
+	 */
+	public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+		if (invoker == null) {
+			return method.invoke(target, args);
+		}
+		try {
+			return invoker.invokeExact(target, args);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	private static ParameterBinding[] compileBindings(Method method) {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		Type[] genericParameterTypes = method.getGenericParameterTypes();
+		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+		ParameterBinding[] result = new ParameterBinding[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			BindingType type = BindingType.PAYLOAD;
+			String headerName = null;
+			int payloadIndex = 0;
+			for (Annotation annotation : parameterAnnotations[i]) {
+				if (annotation instanceof IOHeaders) {
+					type = BindingType.HEADERS;
+				} else if (annotation instanceof IOHeader && type != BindingType.HEADERS) {
+					type = BindingType.HEADER;
+					headerName = ((IOHeader) annotation).value();
+				} else if (annotation instanceof IOPayload) {
+					payloadIndex = ((IOPayload) annotation).index();
+				}
+			}
+			result[i] = new ParameterBinding(type, parameterTypes[i], headerName, payloadIndex,
+					elementTypeOf(parameterTypes[i], genericParameterTypes[i]));
+		}
+		return result;
+	}
+
+	private static Type elementTypeOf(Class<?> parameterType, Type genericParameterType) {
+		if (List.class.isAssignableFrom(parameterType)) {
+			if (genericParameterType instanceof ParameterizedType) {
+				return ((ParameterizedType) genericParameterType).getActualTypeArguments()[0];
+			}
+			return Object.class;
+		}
+		return parameterType;
+	}
+
+	private static MethodHandle compileInvoker(Method method) {
+		try {
+			method.trySetAccessible();
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			return handle.asSpreader(Object[].class, method.getParameterCount())
+					.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+		} catch (IllegalAccessException | SecurityException e) {
+			log.warn("method " + method + " can't be bound to a MethodHandle, reflection will be used instead");
+			return null;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.kafka.support.JacksonUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Default payload codec based on Jackson, the ObjectReader and ObjectWriter of
+ * each payload type are created once and reused for all the events of that
+ * type. Modules such as Afterburner or Blackbird can be registered on the
+ * ObjectMapper given to the constructor, the default ObjectMapper is the one of
+ * the spring-kafka JsonSerializer with the Jdk8 and JavaTime modules and the
+ * unknown properties ignored.
+ */
+public class IOEventJacksonPayloadCodec implements IOEventPayloadCodec {
+
+	private final ObjectMapper mapper;
+	private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+	private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+	public IOEventJacksonPayloadCodec() {
+		this(JacksonUtils.enhancedObjectMapper());
+	}
+
+	public IOEventJacksonPayloadCodec(ObjectMapper mapper) {
+		this.mapper = mapper;
+	}
+
+	public ObjectMapper getObjectMapper() {
+		return mapper;
+	}
+
+	@Override
+	public Object decode(String payload, Type type) throws JsonProcessingException {
+		return readers.computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t))).readValue(payload);
+	}
+
+	@Override
+	public byte[] encode(Object payload) throws JsonProcessingException {
+		return writers.computeIfAbsent(payload.getClass(), mapper::writerFor).writeValueAsBytes(payload);
+	}
+}
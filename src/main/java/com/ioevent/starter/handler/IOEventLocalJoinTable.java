@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.ioevent.starter.domain.IOEventParallelAggregate;
+import com.ioevent.starter.domain.IOEventParallelEventInformation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local join table of the parallel gateway branches consumed by this instance,
+ * keyed by gateway key. A branch is held in memory for the hold time waiting for
+ * the other branches of its join : when all the inputs required arrive the join
+ * is completed in process, without going through the gateway events topic and
+ * the Kafka Streams aggregation. The branches whose join is not completed in
+ * time, or which are still held when partitions are revoked, are forwarded to
+ * the gateway events topic. The callback of each branch is run once the branch
+ * is joined or forwarded, so the offset of its record is only committed when the
+ * branch can't be lost anymore.
+ */
+@Slf4j
+public class IOEventLocalJoinTable {
+
+	/** join completed in process **/
+	public static final class LocalJoin {
+		private final IOEventParallelEventInformation joinedEvent;
+		private final List<Runnable> onResolved;
+
+		LocalJoin(IOEventParallelEventInformation joinedEvent, List<Runnable> onResolved) {
+			this.joinedEvent = joinedEvent;
+			this.onResolved = onResolved;
+		}
+
+		public IOEventParallelEventInformation getJoinedEvent() {
+			return joinedEvent;
+		}
+
+		/** run the callbacks of the joined branches **/
+		public void resolve() {
+			onResolved.forEach(IOEventLocalJoinTable::runCallback);
+		}
+	}
+
+	private static final class PendingJoin {
+		private IOEventParallelAggregate aggregate = IOEventParallelAggregate.empty();
+		private final List<IOEventParallelEventInformation> branches = new ArrayList<>();
+		private final List<Runnable> onResolved = new ArrayList<>();
+		private ScheduledFuture<?> timeout;
+	}
+
+	private final long holdMs;
+	private final Consumer<IOEventParallelEventInformation> forwarder;
+	private final Map<String, PendingJoin> pendingJoins = new HashMap<>();
+	private final ScheduledThreadPoolExecutor timer;
+	private final AtomicLong localJoins = new AtomicLong();
+	private final AtomicLong forwardedBranches = new AtomicLong();
+
+	/**
+	 * create a local join table,
+	 *
+	 * @param holdMs    for the maximum time a branch is held waiting for its join,
+	 * @param forwarder for the sender of the branches to the gateway events topic,
+	 */
+	public IOEventLocalJoinTable(long holdMs, Consumer<IOEventParallelEventInformation> forwarder) {
+		this.holdMs = holdMs;
+		this.forwarder = forwarder;
+		this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "IOEvent Join Timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.timer.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * method to add a branch to its join, the branch is held until the join is
+	 * completed or the hold time is elapsed,
+	 *
+	 * @param key        for the gateway key of the join,
+	 * @param branch     for the parallel event of the branch,
+	 * @param onResolved for the callback run once the branch is joined or
+	 *                   forwarded,
+	 * @return the completed join if the branch is the last one, null if the
+	 *         branch is held,
+	 */
+	public LocalJoin offer(String key, IOEventParallelEventInformation branch, Runnable onResolved) {
+		IOEventParallelAggregate branchAggregate = IOEventParallelAggregate.of(branch);
+		synchronized (pendingJoins) {
+			PendingJoin pending = pendingJoins.get(key);
+			if (pending == null) {
+				pending = new PendingJoin();
+				pending.timeout = timer.schedule(() -> forward(key), holdMs, TimeUnit.MILLISECONDS);
+				pendingJoins.put(key, pending);
+			}
+			pending.aggregate = pending.aggregate.merge(branchAggregate);
+			pending.branches.add(branch);
+			pending.onResolved.add(onResolved);
+			if (!pending.aggregate.isComplete()) {
+				return null;
+			}
+			pendingJoins.remove(key);
+			pending.timeout.cancel(false);
+			localJoins.incrementAndGet();
+			return new LocalJoin(pending.aggregate.toParallelEventInformation(), pending.onResolved);
+		}
+	}
+
+	/**
+	 * forward all the held branches to the gateway events topic, called when
+	 * partitions are revoked and before the final commit of the listeners
+	 **/
+	public void forwardAll() {
+		List<String> keys;
+		synchronized (pendingJoins) {
+			keys = new ArrayList<>(pendingJoins.keySet());
+		}
+		keys.forEach(this::forward);
+	}
+
+	/**
+	 * forward the held branches of a join to the gateway events topic, the
+	 * callbacks are not run if a branch can't be sent so its record is consumed
+	 * again,
+	 *
+	 * @param key for the gateway key of the join,
+	 */
+	void forward(String key) {
+		PendingJoin pending;
+		synchronized (pendingJoins) {
+			pending = pendingJoins.remove(key);
+		}
+		if (pending == null) {
+			return;
+		}
+		pending.timeout.cancel(false);
+		try {
+			pending.branches.forEach(forwarder);
+		} catch (RuntimeException e) {
+			log.error("parallel gateway branches of " + key + " can't be forwarded", e);
+			return;
+		}
+		forwardedBranches.addAndGet(pending.branches.size());
+		pending.onResolved.forEach(IOEventLocalJoinTable::runCallback);
+	}
+
+	public int getPendingCount() {
+		synchronized (pendingJoins) {
+			return pendingJoins.size();
+		}
+	}
+
+	public long getLocalJoins() {
+		return localJoins.get();
+	}
+
+	public long getForwardedBranches() {
+		return forwardedBranches.get();
+	}
+
+	/** forward the held branches and stop the timer **/
+	public void shutdown() {
+		forwardAll();
+		timer.shutdownNow();
+	}
+
+	private static void runCallback(Runnable callback) {
+		try {
+			callback.run();
+		} catch (RuntimeException e) {
+			log.error("parallel gateway branch callback failed", e);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import java.lang.reflect.Type;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Codec used to read the payloads of the consumed events and to write the
+ * payloads of the produced events. A single codec bean is shared by the records
+ * handler, the parallel listener and the producer factory, applications can
+ * replace it by declaring their own IOEventPayloadCodec bean.
+ */
+public interface IOEventPayloadCodec {
+
+	/**
+	 * method to read a consumed payload as the type given,
+	 *
+	 * @param payload for the consumed record value,
+	 * @param type    for the type of the method parameter,
+	 * @return the decoded payload,
+	 * @throws JsonProcessingException
+	 */
+	Object decode(String payload, Type type) throws JsonProcessingException;
+
+	/**
+	 * method to write the payload of a produced event,
+	 *
+	 * @param payload for the event payload,
+	 * @return the encoded payload,
+	 * @throws JsonProcessingException
+	 */
+	byte[] encode(Object payload) throws JsonProcessingException;
+
+	/**
+	 * kafka value serializer writing the payloads with this codec,
+	 *
+	 * @return Serializer,
+	 */
+	default Serializer<Object> serializer() {
+		return (topic, data) -> {
+			if (data == null) {
+				return null;
+			}
+			try {
+				return encode(data);
+			} catch (JsonProcessingException e) {
+				throw new SerializationException("Can't serialize payload of topic " + topic, e);
+			}
+		};
+	}
+}
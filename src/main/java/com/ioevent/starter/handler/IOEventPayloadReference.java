@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.handler;
+
+import java.util.Objects;
+
+/**
+ * Reference to the payload of a parallel gateway branch kept in the topic from
+ * which the branch was consumed, the reference is carried in the joined event
+ * headers instead of the payload and resolved when the method of the gateway is
+ * invoked.
+ */
+public final class IOEventPayloadReference {
+
+	/** prefix of the header holding the payload reference of an input **/
+	public static final String HEADER_PREFIX = "IOEventPayloadRef-";
+
+	private final String topic;
+	private final int partition;
+	private final long offset;
+
+	public IOEventPayloadReference(String topic, int partition, long offset) {
+		this.topic = topic;
+		this.partition = partition;
+		this.offset = offset;
+	}
+
+	/**
+	 * method to parse a reference written by toString(),
+	 * 
+	 * @param reference for the reference as topic:partition:offset,
+	 * @return IOEventPayloadReference,
+	 */
+	public static IOEventPayloadReference parse(String reference) {
+		int offsetSeparator = reference.lastIndexOf(':');
+		int partitionSeparator = reference.lastIndexOf(':', offsetSeparator - 1);
+		if (partitionSeparator <= 0) {
+			throw new IllegalArgumentException("invalid IOEvent payload reference " + reference);
+		}
+		return new IOEventPayloadReference(reference.substring(0, partitionSeparator),
+				Integer.parseInt(reference.substring(partitionSeparator + 1, offsetSeparator)),
+				Long.parseLong(reference.substring(offsetSeparator + 1)));
+	}
+
+	/**
+	 * method returns the header holding the reference of the payload of an input,
+	 * 
+	 * @param inputName for the input name,
+	 * @return header name,
+	 */
+	public static String headerName(String inputName) {
+		return HEADER_PREFIX + inputName;
+	}
+
+	public String getTopic() {
+		return topic;
+	}
+
+	public int getPartition() {
+		return partition;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof IOEventPayloadReference)) {
+			return false;
+		}
+		IOEventPayloadReference other = (IOEventPayloadReference) o;
+		return partition == other.partition && offset == other.offset && Objects.equals(topic, other.topic);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(topic, partition, offset);
+	}
+
+	@Override
+	public String toString() {
+		return topic + ":" + partition + ":" + offset;
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.handler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolver of the parallel gateway payloads sent by reference, the payloads are
+ * read back from the topics of the branches by a small pool of consumers which
+ * never commit offsets, so the joins completed concurrently are resolved
+ * concurrently. All the references of a join are resolved in a single pass : the
+ * referenced partitions are assigned together and each one is seeked to its
+ * next referenced offset.
+ */
+@Slf4j
+public class IOEventPayloadResolver {
+
+	private final ConsumerFactory<String, String> consumerFactory;
+	private final long fetchTimeoutMs;
+	private final int maxConsumers;
+	private final BlockingQueue<Consumer<String, String>> idleConsumers = new LinkedBlockingQueue<>();
+	private final List<Consumer<String, String>> consumers = new ArrayList<>();
+	private boolean closed = false;
+
+	public IOEventPayloadResolver(ConsumerFactory<String, String> consumerFactory, long fetchTimeoutMs,
+			int maxConsumers) {
+		this.consumerFactory = consumerFactory;
+		this.fetchTimeoutMs = fetchTimeoutMs;
+		this.maxConsumers = Math.max(1, maxConsumers);
+	}
+
+	/**
+	 * method to read the payload of a reference,
+	 * 
+	 * @param reference for the payload reference,
+	 * @return the payload of the referenced record,
+	 * @throws IllegalStateException if the record can't be read before the fetch
+	 *                               timeout, e.g. when it is deleted by the topic
+	 *                               retention,
+	 */
+	public String resolve(IOEventPayloadReference reference) {
+		return resolveAll(Collections.singleton(reference)).get(reference);
+	}
+
+	/**
+	 * method to read the payloads of the references of a join in a single pass,
+	 * 
+	 * @param references for the payload references,
+	 * @return map of the payloads by reference,
+	 * @throws IllegalStateException if a record can't be read before the fetch
+	 *                               timeout, e.g. when it is deleted by the topic
+	 *                               retention,
+	 */
+	public Map<IOEventPayloadReference, String> resolveAll(Collection<IOEventPayloadReference> references) {
+		Map<TopicPartition, TreeSet<Long>> pending = new HashMap<>();
+		for (IOEventPayloadReference reference : references) {
+			pending.computeIfAbsent(new TopicPartition(reference.getTopic(), reference.getPartition()),
+					partition -> new TreeSet<>()).add(reference.getOffset());
+		}
+		Map<IOEventPayloadReference, String> payloads = new HashMap<>();
+		if (pending.isEmpty()) {
+			return payloads;
+		}
+		long deadline = System.currentTimeMillis() + fetchTimeoutMs;
+		Consumer<String, String> consumer = borrowConsumer();
+		try {
+			consumer.assign(pending.keySet());
+			pending.forEach((partition, offsets) -> consumer.seek(partition, offsets.first()));
+			while (!pending.isEmpty() && System.currentTimeMillis() < deadline) {
+				for (ConsumerRecord<String, String> consumerRecord : consumer.poll(Duration.ofMillis(100))) {
+					TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+					TreeSet<Long> offsets = pending.get(partition);
+					if (offsets == null || consumerRecord.offset() < offsets.first()) {
+						continue;
+					}
+					IOEventPayloadReference reference = new IOEventPayloadReference(partition.topic(),
+							partition.partition(), offsets.first());
+					if (consumerRecord.offset() > offsets.first()) {
+						throw new IllegalStateException("IOEvent payload " + reference + " no longer exists");
+					}
+					payloads.put(reference, consumerRecord.value());
+					offsets.pollFirst();
+					if (offsets.isEmpty()) {
+						pending.remove(partition);
+						consumer.pause(Collections.singleton(partition));
+					} else {
+						consumer.seek(partition, offsets.first());
+					}
+				}
+			}
+		} finally {
+			consumer.resume(consumer.paused());
+			releaseConsumer(consumer);
+		}
+		if (!pending.isEmpty()) {
+			throw new IllegalStateException(
+					"IOEvent payloads of " + pending.keySet() + " not fetched after " + fetchTimeoutMs + " ms");
+		}
+		return payloads;
+	}
+
+	private Consumer<String, String> borrowConsumer() {
+		Consumer<String, String> consumer = idleConsumers.poll();
+		if (consumer != null) {
+			return consumer;
+		}
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("IOEvent payload resolver is closed");
+			}
+			if (consumers.size() < maxConsumers) {
+				Properties properties = new Properties();
+				properties.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+				properties.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "1");
+				consumer = consumerFactory.createConsumer(null, null, "-payload-resolver-" + consumers.size(),
+						properties);
+				consumers.add(consumer);
+				return consumer;
+			}
+		}
+		try {
+			consumer = idleConsumers.poll(fetchTimeoutMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (consumer == null) {
+			throw new IllegalStateException("no IOEvent payload resolver consumer available after " + fetchTimeoutMs
+					+ " ms");
+		}
+		return consumer;
+	}
+
+	private synchronized void releaseConsumer(Consumer<String, String> consumer) {
+		if (closed) {
+			consumer.close();
+		} else {
+			idleConsumers.offer(consumer);
+		}
+	}
+
+	public synchronized int getConsumerCount() {
+		return consumers.size();
+	}
+
+	/**
+	 * close the idle consumers of the resolver on shutdown, the consumers in use
+	 * are closed once their resolution is over
+	 **/
+	@PreDestroy
+	public synchronized void close() {
+		closed = true;
+		Consumer<String, String> consumer;
+		while ((consumer = idleConsumers.poll()) != null) {
+			consumer.close();
+		}
+	}
+}
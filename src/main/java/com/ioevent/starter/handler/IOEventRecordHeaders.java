@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import com.ioevent.starter.domain.IOEventHeaders;
+
+/**
+ * Decoded view of the headers of a consumed record, built in a single pass
+ * over the record headers. The IOEvent headers values are kept as raw bytes and
+ * only converted to String the first time they are requested, the headers
+ * forwarded to the next event are collected in the same pass.
+ */
+public class IOEventRecordHeaders {
+
+	static final String SPRING_JSON_HEADER_TYPES = "spring_json_header_types";
+	private static final String OUTPUT_EVENT = IOEventHeaders.OUTPUT_EVENT.toString();
+	private static final String CORRELATION_ID = IOEventHeaders.CORRELATION_ID.toString();
+	private static final String PROCESS_NAME = IOEventHeaders.PROCESS_NAME.toString();
+	private static final String START_INSTANCE_TIME = IOEventHeaders.START_INSTANCE_TIME.toString();
+	private static final String ERROR_TYPE = IOEventHeaders.ERROR_TYPE.toString();
+	private static final String ERROR_MESSAGE = IOEventHeaders.ERROR_MESSAGE.toString();
+	private static final String ERROR_TRACE = IOEventHeaders.ERROR_TRACE.toString();
+	private static final String RESUME = IOEventHeaders.RESUME.toString();
+
+	private final List<Header> headerList;
+	private byte[] outputEventValue;
+	private byte[] correlationIdValue;
+	private byte[] processNameValue;
+	private byte[] startInstanceTimeValue;
+
+	private String outputEvent;
+	private String correlationId;
+	private String processName;
+
+	public IOEventRecordHeaders(Headers headers) {
+		this.headerList = new ArrayList<>();
+		for (Header header : headers) {
+			String key = header.key();
+			if (OUTPUT_EVENT.equals(key)) {
+				outputEventValue = header.value();
+			} else if (CORRELATION_ID.equals(key)) {
+				correlationIdValue = header.value();
+			} else if (PROCESS_NAME.equals(key)) {
+				processNameValue = header.value();
+			} else if (START_INSTANCE_TIME.equals(key)) {
+				startInstanceTimeValue = header.value();
+			} else if (SPRING_JSON_HEADER_TYPES.equals(key) || ERROR_TYPE.equals(key) || ERROR_MESSAGE.equals(key)
+					|| ERROR_TRACE.equals(key) || RESUME.equals(key)) {
+				continue;
+			}
+			headerList.add(header);
+		}
+	}
+
+	/**
+	 * headers to forward to the next event, without the spring type header, the
+	 * error headers and the resume header,
+	 *
+	 * @return list of Header,
+	 */
+	public List<Header> getHeaderList() {
+		return headerList;
+	}
+
+	public String getOutputEvent() {
+		if (outputEvent == null && outputEventValue != null) {
+			outputEvent = decode(outputEventValue);
+		}
+		return outputEvent;
+	}
+
+	public String getCorrelationId() {
+		if (correlationId == null && correlationIdValue != null) {
+			correlationId = decode(correlationIdValue);
+		}
+		return correlationId;
+	}
+
+	public String getProcessName() {
+		if (processName == null && processNameValue != null) {
+			processName = decode(processNameValue);
+		}
+		return processName;
+	}
+
+	public Long getStartInstanceTime() {
+		if (startInstanceTimeValue == null) {
+			return null;
+		}
+		return Long.valueOf(decode(startInstanceTimeValue));
+	}
+
+	private static String decode(byte[] value) {
+		return new String(value, StandardCharsets.UTF_8);
+	}
+}
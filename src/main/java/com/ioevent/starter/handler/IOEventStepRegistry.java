@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of the @IOEvent methods of the application keyed by their class name
+ * and step ID, filled by the bean post processor at startup. The step ID is
+ * generated from the key and the inputs and outputs of the step, so two classes
+ * can declare the same step ID, but a step ID shared by two methods of a class
+ * fails the startup. Once the context is refreshed
+ * the proxied bean of each step is resolved so that no container lookup or
+ * method scan is needed when an event has to be dispatched to a step.
+ */
+@Slf4j
+public class IOEventStepRegistry implements ApplicationListener<ContextRefreshedEvent> {
+
+	private final Map<String, BeanMethodPair> steps = new ConcurrentHashMap<>();
+	private final Map<String, BeanMethodPair> stepsByMethod = new ConcurrentHashMap<>();
+	private final Set<BeanMethodPair> allSteps = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * register a step, the step is indexed by its class name and step ID and by
+	 * its class and method names,
+	 *
+	 * @param pair for the bean method pair of the step,
+	 * @throws BeanInitializationException if another method of the class has the
+	 *                                     same step ID,
+	 */
+	public void register(BeanMethodPair pair) {
+		String className = pair.getBean().getClass().getName();
+		if (pair.getStepId() != null) {
+			BeanMethodPair previous = steps.putIfAbsent(stepKey(className, pair.getStepId()), pair);
+			if (previous != null && !previous.getMethod().equals(pair.getMethod())) {
+				throw new BeanInitializationException("IOEvent step ID " + pair.getStepId() + " is shared by "
+						+ previous.getMethod() + " and " + pair.getMethod());
+			}
+		}
+		allSteps.add(pair);
+		stepsByMethod.putIfAbsent(methodKey(className, pair.getMethod().getName()), pair);
+	}
+
+	/**
+	 * method returns the step registered with the class name and step ID given,
+	 * or with the class and method names for events produced without step ID,
+	 *
+	 * @param stepId     for the step ID,
+	 * @param className  for the class name of the bean,
+	 * @param methodName for the method name,
+	 * @return BeanMethodPair or null if the step is unknown,
+	 */
+	public BeanMethodPair getStep(String stepId, String className, String methodName) {
+		BeanMethodPair pair = (stepId != null && className != null) ? steps.get(stepKey(className, stepId)) : null;
+		if (pair == null && className != null && methodName != null) {
+			pair = stepsByMethod.get(methodKey(className, methodName));
+		}
+		return pair;
+	}
+
+	public Collection<BeanMethodPair> getSteps() {
+		return Collections.unmodifiableCollection(allSteps);
+	}
+
+	/**
+	 * resolve the proxied beans of all registered steps once the context is
+	 * refreshed,
+	 */
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		for (BeanMethodPair pair : allSteps) {
+			try {
+				pair.getTarget();
+			} catch (BeansException e) {
+				log.error("IOEvent step bean can't be resolved for " + pair.getMethod(), e);
+			}
+		}
+	}
+
+	private static String methodKey(String className, String methodName) {
+		return className + "#" + methodName;
+	}
+
+	private static String stepKey(String className, String stepId) {
+		return className + "@" + stepId;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor made of single threaded lanes, the tasks submitted with the same key
+ * always run on the same lane in their submission order while tasks of
+ * different keys run in parallel on the other lanes. Used to keep the events of
+ * one process instance (same correlation ID) ordered.
+ */
+public class IOEventStripedExecutor {
+
+	private final ExecutorService[] lanes;
+	private final AtomicInteger nextLane = new AtomicInteger();
+
+	/**
+	 * striped executor constructor
+	 * 
+	 * @param name      for the prefix of the lanes thread names,
+	 * @param laneCount for the number of lanes,
+	 */
+	public IOEventStripedExecutor(String name, int laneCount) {
+		if (laneCount <= 0) {
+			throw new IllegalArgumentException("lane count must be positive : " + laneCount);
+		}
+		this.lanes = new ExecutorService[laneCount];
+		for (int i = 0; i < laneCount; i++) {
+			String threadName = name + "-lane-" + i;
+			lanes[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+		}
+	}
+
+	/**
+	 * run the task on the lane of the key given, tasks without key are spread over
+	 * the lanes,
+	 * 
+	 * @param key  for the ordering key of the task,
+	 * @param task for the task to run,
+	 */
+	public void execute(String key, Runnable task) {
+		lanes[laneOf(key)].execute(task);
+	}
+
+	/**
+	 * method returns the lane index of the key given,
+	 * 
+	 * @param key for the ordering key,
+	 * @return the lane index,
+	 */
+	public int laneOf(String key) {
+		int hash = (key != null) ? key.hashCode() : nextLane.getAndIncrement();
+		return (hash & Integer.MAX_VALUE) % lanes.length;
+	}
+
+	public int getLaneCount() {
+		return lanes.length;
+	}
+
+	/**
+	 * stop accepting tasks and wait for the submitted tasks to finish,
+	 * 
+	 * @param timeout for the maximum time to wait for each lane,
+	 * @param unit    for the unit of the timeout,
+	 * @throws InterruptedException
+	 */
+	public void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+		for (ExecutorService lane : lanes) {
+			lane.shutdown();
+		}
+		for (ExecutorService lane : lanes) {
+			lane.awaitTermination(timeout, unit);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttle of the invocations of a step, the invocations are spaced evenly to
+ * respect a rate of events per second. The records handler reserves the slot of
+ * a record when it is dispatched and delays its hand off to the executor until
+ * the slot, the records waiting for a slot stay counted in the in flight window
+ * of the listener which pauses its partitions once the window is full.
+ */
+public class IOEventThrottle {
+
+	private final double ratePerSecond;
+	private final long intervalNanos;
+	private long nextSlot = System.nanoTime();
+
+	public IOEventThrottle(double ratePerSecond) {
+		if (ratePerSecond <= 0) {
+			throw new IllegalArgumentException("throttle rate must be positive, rate : " + ratePerSecond);
+		}
+		this.ratePerSecond = ratePerSecond;
+		this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+	}
+
+	/**
+	 * reserve the slot of the next invocations,
+	 * 
+	 * @param permits for the number of events processed by the invocation,
+	 * @return the time to wait for the slot in nanoseconds, 0 or less when the
+	 *         slot is already reached,
+	 */
+	public synchronized long reserve(int permits) {
+		long now = System.nanoTime();
+		long slot = Math.max(nextSlot, now);
+		nextSlot = slot + intervalNanos * permits;
+		return slot - now;
+	}
+
+	public double getRatePerSecond() {
+		return ratePerSecond;
+	}
+}
@@ -16,16 +16,21 @@
 
 package com.ioevent.starter.handler;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -40,14 +45,18 @@ import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.util.StopWatch;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.ioevent.starter.annotations.IOHeader;
-import com.ioevent.starter.annotations.IOHeaders;
-import com.ioevent.starter.annotations.IOPayload;
 import com.ioevent.starter.configuration.context.AppContext;
+import com.ioevent.starter.configuration.kafka.IOEventGatewayTopics;
 import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
 import com.ioevent.starter.domain.IOEventHeaders;
+import com.ioevent.starter.domain.IOEventGatewayKey;
 import com.ioevent.starter.domain.IOEventParallelEventInformation;
+import com.ioevent.starter.handler.IOEventBindingPlan.BindingType;
+import com.ioevent.starter.handler.IOEventBindingPlan.ParameterBinding;
+import com.ioevent.starter.listener.IOEventInFlightWindow;
+import com.ioevent.starter.listener.IOEventOffsetTracker;
+import com.ioevent.starter.listener.IOEventRecordFilter;
+import com.ioevent.starter.listener.IOEventRoutingTable;
 import com.ioevent.starter.service.IOEventContextHolder;
 import com.ioevent.starter.service.IOEventService;
 
@@ -57,7 +66,14 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class RecordsHandler {
 
-	ObjectMapper mapper = new ObjectMapper();
+	@Autowired
+	private IOEventPayloadCodec payloadCodec;
+
+	@Autowired(required = false)
+	private IOEventPayloadResolver payloadResolver;
+
+	@Value("${ioevent.parallel_payload_by_reference:false}")
+	private boolean payloadByReference;
 
 	@Autowired
 	private AppContext ctx;
@@ -70,17 +86,40 @@ public class RecordsHandler {
 	@Autowired
 	private KafkaTemplate<String, Object> kafkaTemplate;
 
+	@Autowired
+	private IOEventGatewayTopics gatewayTopics;
+
 	@Autowired
 	private Executor asyncExecutor;
 
+	private final Map<String, IOEventStripedExecutor> stripedExecutors = new ConcurrentHashMap<>();
+
+	private final Map<BeanMethodPair, IOEventBatchAccumulator> batchAccumulators = new ConcurrentHashMap<>();
+
+	private ScheduledExecutorService batchTimer;
+
+	private ScheduledExecutorService throttleTimer;
+
+	@Value("${ioevent.parallel_local_join_ms:100}")
+	private long localJoinHoldMs;
+
+	private IOEventLocalJoinTable localJoinTable;
+
 	public Object parseConsumedValue(Object consumedValue, Class<?> type) throws JsonProcessingException {
 		if (type.equals(String.class)) {
 			return consumedValue;
 		} else {
-			return mapper.readValue(consumedValue.toString(), type);
+			return payloadCodec.decode(consumedValue.toString(), type);
 		}
 	}
 
+	public Object parseConsumedValue(Object consumedValue, Type type) throws JsonProcessingException {
+		if (type instanceof Class) {
+			return parseConsumedValue(consumedValue, (Class<?>) type);
+		}
+		return payloadCodec.decode(consumedValue.toString(), type);
+	}
+
 	/**
 	 * method to invoke the method from a specific bean
 	 * 
@@ -103,47 +142,291 @@ public class RecordsHandler {
 	}
 
 	/**
-	 * method called when the listener consume event , the method scan the header
-	 * from consumer records and create ioeventRecordInfo from it , check if the
-	 * output of the event equals to our methods Input , if our method annotation
-	 * has parallel gateway :check if the list of Input are all arrived then send
-	 * ioeventRecordInfo to aspect and call doinvoke(), else send ioeventRecordsInfo
-	 * to aspect and call doinvoke()
+	 * method to invoke the method of a bean method pair through its binding plan
+	 * 
+	 * @throws InvocationTargetException
+	 * @throws IllegalAccessException
+	 **/
+	public Object invokeWithBindingPlan(BeanMethodPair pair, Object[] params)
+			throws IllegalAccessException, InvocationTargetException {
+		return pair.getBindingPlan().invoke(pair.getTarget(), params);
+	}
+
+	/**
+	 * method called when the listener consume event , the records no method waits
+	 * for are skipped by the record filter of the listener before their headers
+	 * are decoded, the method scan the header
+	 * from consumer records and create ioeventRecordInfo from it , look up the
+	 * methods waiting for the output of the event in the listener routing table ,
+	 * if our method annotation has parallel gateway :check if the list of Input
+	 * are all arrived then send ioeventRecordInfo to aspect and call doinvoke(),
+	 * else send ioeventRecordsInfo to aspect and call doinvoke(), each record
+	 * handed to the executor is counted in the in flight window of the listener
+	 * until its processing is over, the records of steps from an @IOFlow with
+	 * lanes run on the lane of their correlation ID, the offset tracker is
+	 * notified when all the methods invoked for a record are over, the records of
+	 * @IOBatch methods are accumulated and the method is invoked once per batch,
+	 * the parallel gateway branches held for a local join are only notified to
+	 * the offset tracker once joined or forwarded, the records of a throttled step
+	 * are held until their slot before being handed to the executor
 	 **/
-	
-	public void process(ConsumerRecords<String, String> consumerRecords, List<BeanMethodPair> beanMethodPairs) {
+	public void process(ConsumerRecords<String, String> consumerRecords, IOEventRoutingTable routingTable,
+			IOEventInFlightWindow inFlightWindow, IOEventOffsetTracker offsetTracker,
+			IOEventRecordFilter recordFilter) {
 		for (ConsumerRecord<String, String> consumerRecord : consumerRecords) {
+			if (!recordFilter.accept(consumerRecord, routingTable)) {
+				offsetTracker.track(consumerRecord, 0);
+				continue;
+			}
 
-			String outputConsumed = this.getIOEventHeaders(consumerRecord).getOutputConsumedName();
-			for (BeanMethodPair pair : beanMethodPairs) {
+			IOEventRecordHeaders recordHeaders = new IOEventRecordHeaders(consumerRecord.headers());
+			List<BeanMethodPair> pairs = routingTable.route(consumerRecord.topic(), recordHeaders.getOutputEvent());
+			offsetTracker.track(consumerRecord, pairs.size());
+			for (BeanMethodPair pair : pairs) {
+
+				IOEventRecordInfo ioeventRecordInfo = this.getIOEventHeaders(recordHeaders);
+				if (isBatch(pair)) {
+					inFlightWindow.acquire();
+					getBatchAccumulator(pair)
+							.add(new IOEventBatchItem(consumerRecord, ioeventRecordInfo, inFlightWindow, offsetTracker));
+					continue;
+				}
+				Runnable task = () -> {
+					boolean handedOff = false;
+					try {
+						IOEventContextHolder.setContext(ioeventRecordInfo);
+						if (pair.getIoEvent().gatewayInput().parallel()) {
 
-				for (String InputName : ioEventService.getInputNames(pair.getIoEvent())) {
+							handedOff = parallelInvoke(pair, consumerRecord, ioeventRecordInfo,
+									() -> offsetTracker.complete(consumerRecord));
 
-					if (InputName.equals(outputConsumed)) {
-					
-						 asyncExecutor.execute(()->{
+						} else {
 
-							IOEventRecordInfo ioeventRecordInfo = this.getIOEventHeaders(consumerRecord);
-							IOEventContextHolder.setContext(ioeventRecordInfo);
-							if (pair.getIoEvent().gatewayInput().parallel()) {
+							try {
+								simpleInvokeMethod(pair, consumerRecord.value(), ioeventRecordInfo);
+							} catch (IllegalAccessException | InvocationTargetException | JsonProcessingException e) {
+								log.error("error while invoking method", e);
+							}
+						}
+					} finally {
+						inFlightWindow.release();
+						if (!handedOff) {
+							offsetTracker.complete(consumerRecord);
+						}
+					}
+				};
+				inFlightWindow.acquire();
+				try {
+					if (pair.getLanes() > 0) {
+						String key = (recordHeaders.getCorrelationId() != null) ? recordHeaders.getCorrelationId()
+								: consumerRecord.key();
+						IOEventStripedExecutor stripedExecutor = getStripedExecutor(pair);
+						dispatch(pair, 1, task, laneTask -> stripedExecutor.execute(key, laneTask),
+								inFlightWindow::release);
+					} else {
+						dispatch(pair, 1, task, asyncExecutor, inFlightWindow::release);
+					}
+				} catch (RuntimeException e) {
+					inFlightWindow.release();
+					throw e;
+				}
+			}
 
-								parallelInvoke(pair, consumerRecord, ioeventRecordInfo);
+		}
+	}
 
-							} else {
+	/**
+	 * method returns the striped executor of the @IOFlow of the step, created
+	 * on first use with the lane count of the flow,
+	 * 
+	 * @param pair for the step bean method pair,
+	 * @return IOEventStripedExecutor,
+	 */
+	public IOEventStripedExecutor getStripedExecutor(BeanMethodPair pair) {
+		Class<?> flowClass = pair.getBean().getClass();
+		return stripedExecutors.computeIfAbsent(flowClass.getName(),
+				name -> new IOEventStripedExecutor(flowClass.getSimpleName(), pair.getLanes()));
+	}
 
-								try {
-									simpleInvokeMethod(pair, consumerRecord.value(), ioeventRecordInfo);
-								} catch (IllegalAccessException | InvocationTargetException
-										| JsonProcessingException e) {
-									log.error("error while invoking method",e);
-								}
-							}
-						});
+	/**
+	 * forward the parallel gateway branches held for a local join and block until
+	 * the output events sent by the @IOEvent methods are acknowledged by the
+	 * brokers, called by the listeners before their final commit
+	 **/
+	public void flushOutputEvents() {
+		forwardPendingJoins();
+		if (kafkaTemplate != null) {
+			kafkaTemplate.flush();
+		}
+	}
+
+	/**
+	 * flush the pending batches, hand the throttled records to the executor and
+	 * stop the lanes of the flows once their pending records are processed
+	 **/
+	@PreDestroy
+	public void shutdownStripedExecutors() throws InterruptedException {
+		batchAccumulators.values().forEach(IOEventBatchAccumulator::flush);
+		ScheduledExecutorService pendingThrottleTimer;
+		synchronized (this) {
+			pendingThrottleTimer = throttleTimer;
+			if (batchTimer != null) {
+				batchTimer.shutdownNow();
+			}
+			if (localJoinTable != null) {
+				localJoinTable.shutdown();
+			}
+		}
+		if (pendingThrottleTimer != null) {
+			pendingThrottleTimer.shutdown();
+			pendingThrottleTimer.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		for (IOEventStripedExecutor stripedExecutor : stripedExecutors.values()) {
+			stripedExecutor.shutdown(10, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * method returns true if the method of the pair is invoked with batches of
+	 * events, the batch mode is ignored for parallel gateway methods
+	 * 
+	 * @param pair for the step bean method pair,
+	 * @return boolean,
+	 */
+	public boolean isBatch(BeanMethodPair pair) {
+		return pair.getIoEvent().batch().maxSize() > 0 && !pair.getIoEvent().gatewayInput().parallel();
+	}
+
+	/**
+	 * method returns the batch accumulator of the step, created on first use
+	 * with the @IOBatch settings of the method,
+	 * 
+	 * @param pair for the step bean method pair,
+	 * @return IOEventBatchAccumulator,
+	 */
+	public IOEventBatchAccumulator getBatchAccumulator(BeanMethodPair pair) {
+		return batchAccumulators.computeIfAbsent(pair,
+				p -> new IOEventBatchAccumulator(p.getIoEvent().batch().maxSize(), p.getIoEvent().batch().maxWaitMs(),
+						getBatchTimer(), batch -> dispatchBatch(p, batch)));
+	}
+
+	private synchronized ScheduledExecutorService getBatchTimer() {
+		if (batchTimer == null) {
+			batchTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "IOEvent Batch Timer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return batchTimer;
+	}
+
+	private synchronized ScheduledExecutorService getThrottleTimer() {
+		if (throttleTimer == null) {
+			throttleTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "IOEvent Throttle Timer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return throttleTimer;
+	}
+
+	/**
+	 * method to hand a task to the executor, the task of a throttled step is held
+	 * by the throttle timer until its slot so that the threads of the executor
+	 * never wait for the throttle of a step and keep processing the other steps,
+	 * 
+	 * @param pair       for the step bean method pair,
+	 * @param permits    for the number of events processed by the task,
+	 * @param task       for the task invoking the step,
+	 * @param executor   for the executor running the task,
+	 * @param onRejected for the callback run when a delayed task is rejected by
+	 *                   the executor,
+	 */
+	void dispatch(BeanMethodPair pair, int permits, Runnable task, Executor executor, Runnable onRejected) {
+		IOEventThrottle throttle = pair.getThrottle();
+		long waitNanos = (throttle != null) ? throttle.reserve(permits) : 0;
+		if (waitNanos <= 0) {
+			executor.execute(task);
+			return;
+		}
+		getThrottleTimer().schedule(() -> {
+			try {
+				executor.execute(task);
+			} catch (RuntimeException e) {
+				log.error("throttled task rejected for " + pair.getMethod(), e);
+				onRejected.run();
+			}
+		}, waitNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void dispatchBatch(BeanMethodPair pair, List<IOEventBatchItem> batch) {
+		try {
+			dispatch(pair, batch.size(), () -> batchInvokeMethod(pair, batch), asyncExecutor,
+					() -> batch.forEach(IOEventBatchItem::abandon));
+		} catch (RuntimeException e) {
+			log.error("batch of " + batch.size() + " events rejected for " + pair.getMethod(), e);
+			batch.forEach(IOEventBatchItem::abandon);
+		}
+	}
+
+	/**
+	 * method to invoke an @IOBatch method with a batch of events, the aspects
+	 * send the output events of each event of the batch
+	 * 
+	 * @param pair  for the step bean method pair,
+	 * @param batch for the events of the batch,
+	 */
+	public void batchInvokeMethod(BeanMethodPair pair, List<IOEventBatchItem> batch) {
+		try {
+			Object[] params = prepareBatchParameters(pair.getBindingPlan(), batch);
+			IOEventContextHolder.setContext(batch.get(0).getRecordInfo());
+			IOEventContextHolder.setBatchContext(batch);
+			this.invokeWithBindingPlan(pair, params);
+		} catch (IllegalAccessException | InvocationTargetException | JsonProcessingException e) {
+			log.error("error while invoking batch method", e);
+		} finally {
+			IOEventContextHolder.unloadBatch();
+			batch.forEach(IOEventBatchItem::release);
+		}
+	}
+
+	/**
+	 * method to prepare the arguments of an @IOBatch method, each parameter
+	 * receives the list of the values of the events of the batch
+	 * 
+	 * @param bindingPlan for the binding plan of the invoked method,
+	 * @param batch       for the events of the batch,
+	 * @return array of arguments,
+	 * @throws JsonProcessingException
+	 */
+	public Object[] prepareBatchParameters(IOEventBindingPlan bindingPlan, List<IOEventBatchItem> batch)
+			throws JsonProcessingException {
+		ParameterBinding[] bindings = bindingPlan.getBindings();
+		Object[] params = new Object[bindings.length];
+		boolean payloadsParsed = false;
+		for (int i = 0; i < bindings.length; i++) {
+			ParameterBinding binding = bindings[i];
+			List<Object> values = new ArrayList<>(batch.size());
+			for (IOEventBatchItem item : batch) {
+				if (binding.getType() == BindingType.PAYLOAD) {
+					Object payload = parseConsumedValue(item.getConsumerRecord().value(), binding.getElementType());
+					if (!payloadsParsed) {
+						item.setPayload(payload);
 					}
+					values.add(payload);
+				} else {
+					Map<String, Object> headersMap = toHeadersMap(item.getRecordInfo().getHeaderList());
+					Object headerValue = headersMap.get(binding.getHeaderName());
+					values.add((binding.getType() == BindingType.HEADERS) ? headersMap
+							: (headerValue != null) ? parseConsumedValue(headerValue, binding.getElementType()) : null);
 				}
 			}
-
+			payloadsParsed |= binding.getType() == BindingType.PAYLOAD;
+			params[i] = values;
 		}
+		return params;
 	}
 
 	public void parallelInvoke(BeanMethodPair pair, ConsumerRecord<String, String> consumerRecord,
@@ -156,14 +439,113 @@ public class RecordsHandler {
 
 	}
 
+	/**
+	 * method to handle a parallel gateway branch, the branch is offered to the
+	 * local join table : the method of the step is invoked right away when the
+	 * branch completes a join of branches consumed by this instance, otherwise the
+	 * branch is held until the join completes or is forwarded to the gateway
+	 * events topic, the branch is sent directly when the local join is disabled,
+	 * 
+	 * @param pair              for the step bean method pair,
+	 * @param consumerRecord    for the consumed branch record,
+	 * @param ioeventRecordInfo for the record info of the branch,
+	 * @param onResolved        for the callback run once the branch is joined or
+	 *                          forwarded,
+	 * @return true if the callback is run by the local join table, false if the
+	 *         branch is already sent and the callback is left to the caller,
+	 */
+	public boolean parallelInvoke(BeanMethodPair pair, ConsumerRecord<String, String> consumerRecord,
+			IOEventRecordInfo ioeventRecordInfo, Runnable onResolved) {
+		IOEventLocalJoinTable joinTable = getLocalJoinTable();
+		if (joinTable == null) {
+			parallelInvoke(pair, consumerRecord, ioeventRecordInfo);
+			return false;
+		}
+		IOEventParallelEventInformation parallelEventInfo = new IOEventParallelEventInformation(consumerRecord,
+				ioeventRecordInfo, pair, pair.getInputNames(), appName);
+		IOEventLocalJoinTable.LocalJoin localJoin = joinTable
+				.offer(IOEventGatewayKey.of(parallelEventInfo).toString(), parallelEventInfo, onResolved);
+		log.info("parallel event arrived : " + ioeventRecordInfo.getOutputConsumedName());
+		if (localJoin != null) {
+			try {
+				invokeParallelJoin(pair, localJoin.getJoinedEvent());
+			} catch (Throwable e) {
+				log.error("error while invoking parallel gateway method", e);
+			} finally {
+				localJoin.resolve();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * method to invoke the method of a step with a joined parallel event, the
+	 * IOEvent context is set from the headers of the joined event,
+	 * 
+	 * @param pair                     for the step bean method pair,
+	 * @param parallelEventInformation for the joined parallel event,
+	 * @throws Throwable
+	 */
+	public void invokeParallelJoin(BeanMethodPair pair, IOEventParallelEventInformation parallelEventInformation)
+			throws Throwable {
+		Map<String, Object> headers = parallelEventInformation.getHeaders();
+		StopWatch watch = new StopWatch();
+		watch.start((String) headers.get(IOEventHeaders.CORRELATION_ID.toString()));
+		IOEventRecordInfo ioeventRecordInfo = new IOEventRecordInfo(
+				headers.get(IOEventHeaders.CORRELATION_ID.toString()).toString(),
+				headers.get(IOEventHeaders.PROCESS_NAME.toString()).toString(),
+				parallelEventInformation.getInputsArrived().toString(), watch,
+				Long.valueOf(headers.get(IOEventHeaders.START_INSTANCE_TIME.toString()).toString()), null);
+		IOEventContextHolder.setContext(ioeventRecordInfo);
+		Object[] params = prepareParallelParameters(pair.getBindingPlan(), parallelEventInformation);
+		pair.getBindingPlan().invoke(pair.getTarget(), params);
+	}
+
+	/**
+	 * method returns the local join table of the parallel gateway branches,
+	 * created on first use, null when ioevent.parallel_local_join_ms is 0,
+	 * 
+	 * @return IOEventLocalJoinTable,
+	 */
+	public synchronized IOEventLocalJoinTable getLocalJoinTable() {
+		if (localJoinTable == null && localJoinHoldMs > 0) {
+			localJoinTable = new IOEventLocalJoinTable(localJoinHoldMs, this::sendParallelInfo);
+		}
+		return localJoinTable;
+	}
+
+	/**
+	 * forward the parallel gateway branches held for a local join to the gateway
+	 * events topic, called when partitions are revoked
+	 **/
+	public void forwardPendingJoins() {
+		IOEventLocalJoinTable joinTable;
+		synchronized (this) {
+			joinTable = localJoinTable;
+		}
+		if (joinTable != null) {
+			joinTable.forwardAll();
+		}
+	}
+
+	/**
+	 * method to send a parallel gateway branch to the gateway events topic, the
+	 * payload is replaced by the reference of the consumed record when
+	 * ioevent.parallel_payload_by_reference is enabled,
+	 * 
+	 * @param parallelEventInfo for the branch to send,
+	 * @return the message sent,
+	 */
 	public Message<IOEventParallelEventInformation> sendParallelInfo(
 			IOEventParallelEventInformation parallelEventInfo) {
-
+		if (payloadByReference) {
+			parallelEventInfo = parallelEventInfo.withPayloadReference();
+		}
 		Message<IOEventParallelEventInformation> message = MessageBuilder.withPayload(parallelEventInfo)
-				.setHeader(KafkaHeaders.TOPIC, "ioevent-parallel-gateway-events")
-				.setHeader(KafkaHeaders.MESSAGE_KEY,
-						parallelEventInfo.getHeaders().get(IOEventHeaders.CORRELATION_ID.toString()).toString()
-								+ parallelEventInfo.getInputRequired())
+				.setHeader(KafkaHeaders.TOPIC, gatewayTopics.getEventsTopic())
+				.setHeader(KafkaHeaders.MESSAGE_KEY, IOEventGatewayKey.of(parallelEventInfo).toString())
+				.setHeader(IOEventGatewayTopics.APP_NAME_HEADER,
+						parallelEventInfo.getHeaders().get(IOEventGatewayTopics.APP_NAME_HEADER))
 				.build();
 		kafkaTemplate.send(message);
 		kafkaTemplate.flush();
@@ -173,176 +555,118 @@ public class RecordsHandler {
 	private void simpleInvokeMethod(BeanMethodPair pair, String consumerValue, IOEventRecordInfo ioeventRecordInfo)
 			throws IllegalAccessException, InvocationTargetException, JsonProcessingException {
 
-		Map<String, Object> headersMap = ioeventRecordInfo.getHeaderList().stream()
-				.collect(Collectors.toMap(Header::key, header -> new String(header.value())));
-		Object[] params = prepareParameters(pair.getMethod(), consumerValue, headersMap);
-		this.invokeWithtwoParameter(pair.getMethod(), pair.getBean(), params);
+		Object[] params = prepareParameters(pair.getBindingPlan(), consumerValue, ioeventRecordInfo.getHeaderList());
+		this.invokeWithBindingPlan(pair, params);
 
 	}
 
-	public Object[] prepareParameters(Method method, String consumerValue, Map<String, Object> headersMap)
-			throws JsonProcessingException {
-		Class[] parameterTypes = method.getParameterTypes();
-		List<Object> paramList = new ArrayList<>();
-
-		List<Integer> headerIndexlist = getIOHeaderIndexList(method);
-		Map<Integer, Object> param = getParamMap(method, consumerValue, headersMap);
-
-		for (int i = 0; i < parameterTypes.length; i++) {
-			if (param.get(i) == null) {
-				paramList.add(parseConsumedValue(consumerValue, parameterTypes[i]));
-			} else if (param.get(i).equals("no such header exist")) {
-				paramList.add(null);
-
-			} else {
-				paramList.add(param.get(i));
-			}
-		}
-
-		return paramList.toArray();
-	}
-
-	public Object[] prepareParallelParameters(Method method, IOEventParallelEventInformation parallelEventConsumed)
+	/**
+	 * method to prepare the arguments of a method from the consumed event
+	 * following the method binding plan
+	 * 
+	 * @param bindingPlan   for the binding plan of the invoked method,
+	 * @param consumerValue for the payload of the consumed event,
+	 * @param headerList    for the headers of the consumed event,
+	 * @return array of arguments,
+	 * @throws JsonProcessingException
+	 */
+	public Object[] prepareParameters(IOEventBindingPlan bindingPlan, String consumerValue, List<Header> headerList)
 			throws JsonProcessingException {
-		Class[] parameterTypes = method.getParameterTypes();
-		List<Object> paramList = new ArrayList<>();
-		Map<Integer, Object> param = getParallelParamMap(method, parallelEventConsumed);
-		for (int i = 0; i < parameterTypes.length; i++) {
-			if (param.get(i) == null) {
-				String payloadInputName = parallelEventConsumed.getInputRequired().get(0);
-				paramList.add(parseConsumedValue(parallelEventConsumed.getPayloadMap().get(payloadInputName),
-						parameterTypes[i]));
-			} else if (param.get(i).equals("no such header exist")) {
-				paramList.add(null);
-
+		ParameterBinding[] bindings = bindingPlan.getBindings();
+		Object[] params = new Object[bindings.length];
+		Map<String, Object> headersMap = null;
+		for (int i = 0; i < bindings.length; i++) {
+			ParameterBinding binding = bindings[i];
+			if (binding.getType() == BindingType.PAYLOAD) {
+				params[i] = parseConsumedValue(consumerValue, binding.getParameterType());
 			} else {
-				paramList.add(param.get(i));
+				if (headersMap == null) {
+					headersMap = toHeadersMap(headerList);
+				}
+				params[i] = bindHeader(binding, headersMap);
 			}
 		}
-		return paramList.toArray();
+		return params;
 	}
 
-	private Map<Integer, Object> getParallelParamMap(Method method,
+	/**
+	 * method to prepare the arguments of a parallel gateway method from the
+	 * joined event following the method binding plan, the payloads sent by
+	 * reference are read back only for the parameters bound to them
+	 * 
+	 * @param bindingPlan           for the binding plan of the invoked method,
+	 * @param parallelEventConsumed for the parallel event information,
+	 * @return array of arguments,
+	 * @throws JsonProcessingException
+	 */
+	public Object[] prepareParallelParameters(IOEventBindingPlan bindingPlan,
 			IOEventParallelEventInformation parallelEventConsumed) throws JsonProcessingException {
-		Class[] parameterTypes = method.getParameterTypes();
-		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-		Map<Integer, Object> paramMap = new HashMap<>();
-		for (int i = 0; i < parameterAnnotations.length; i++) {
-			Annotation[] annotations = parameterAnnotations[i];
-			if (Arrays.asList(annotations).stream().filter(IOPayload.class::isInstance).count() != 0) {
-				for (Annotation annotation : annotations) {
-					IOPayload ioPayload = (IOPayload) annotation;
-					String payloadInputName = parallelEventConsumed.getInputRequired().get(ioPayload.index());
-					paramMap.put(i, parseConsumedValue(parallelEventConsumed.getPayloadMap().get(payloadInputName),
-							parameterTypes[i]));
-				}
-			}
-			if (Arrays.asList(annotations).stream().filter(IOHeader.class::isInstance).count() != 0) {
-				for (Annotation annotation : annotations) {
-					IOHeader ioHeader = (IOHeader) annotation;
-					paramMap.put(i,
-							parallelEventConsumed.getHeaders().get(ioHeader.value()) != null ? parseConsumedValue(
-									parallelEventConsumed.getHeaders().get(ioHeader.value()), parameterTypes[i])
-									: "no such header exist");
-				}
-
-			}
-			if (Arrays.asList(annotations).stream().filter(IOHeaders.class::isInstance).count() != 0) {
-				paramMap.put(i, parallelEventConsumed.getHeaders());
+		ParameterBinding[] bindings = bindingPlan.getBindings();
+		Object[] params = new Object[bindings.length];
+		Map<String, Object> payloads = parallelPayloads(bindings, parallelEventConsumed);
+		for (int i = 0; i < bindings.length; i++) {
+			ParameterBinding binding = bindings[i];
+			if (binding.getType() == BindingType.PAYLOAD) {
+				String payloadInputName = parallelEventConsumed.getInputRequired().get(binding.getPayloadIndex());
+				params[i] = parseConsumedValue(payloads.get(payloadInputName), binding.getParameterType());
+			} else {
+				params[i] = bindHeader(binding, parallelEventConsumed.getHeaders());
 			}
 		}
-		return paramMap;
+		return params;
 	}
 
-	private List<Integer> getIOPayloadIndexlist(Method method) {
-		List<Integer> indexList = new ArrayList<>();
-		Annotation[][] parametersAnnotations = method.getParameterAnnotations();
-		for (Annotation[] parameterAnnotations : parametersAnnotations) {
-			if (parameterAnnotations.length == 0) {
-				indexList.add(-2);
-			}
-			for (Annotation annotations : parameterAnnotations) {
-				try {
-					IOPayload ioPayload = (IOPayload) annotations;
-					indexList.add(ioPayload.index());
-				} catch (Exception e) {
-					try {
-						IOHeaders ioHeaders = (IOHeaders) annotations;
-						indexList.add(-1);
-					} catch (Exception e2) {
-						log.error("Bad Parameter Annotations use");
-					}
+	/**
+	 * method returns the payloads of the inputs bound to the parameters, the
+	 * payloads sent by reference are resolved together in a single pass,
+	 * 
+	 * @param bindings              for the bindings of the method parameters,
+	 * @param parallelEventConsumed for the parallel event information,
+	 * @return map of the payloads by input name,
+	 */
+	private Map<String, Object> parallelPayloads(ParameterBinding[] bindings,
+			IOEventParallelEventInformation parallelEventConsumed) {
+		Map<String, Object> payloads = new HashMap<>();
+		Map<String, IOEventPayloadReference> references = new HashMap<>();
+		for (ParameterBinding binding : bindings) {
+			if (binding.getType() == BindingType.PAYLOAD) {
+				String inputName = parallelEventConsumed.getInputRequired().get(binding.getPayloadIndex());
+				Object reference = parallelEventConsumed.getHeaders()
+						.get(IOEventPayloadReference.headerName(inputName));
+				if (reference != null) {
+					references.put(inputName, IOEventPayloadReference.parse(reference.toString()));
+				} else {
+					payloads.put(inputName, parallelEventConsumed.getPayloadMap().get(inputName));
 				}
-
 			}
 		}
-		return indexList;
-	}
-
-	private int getIOPayloadIndex(Method method) {
-		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-		int parameterIndex = 0;
-		for (Annotation[] annotations : parameterAnnotations) {
-			if (Arrays.asList(annotations).stream().filter(IOPayload.class::isInstance).count() != 0) {
-				return parameterIndex;
+		if (!references.isEmpty()) {
+			if (payloadResolver == null) {
+				throw new IllegalStateException("no IOEventPayloadResolver to read the payloads " + references.values());
 			}
-
-			parameterIndex++;
-		}
-		return -1;
-	}
-
-	public int getIOHeadersIndex(Method method) {
-		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-		int parameterIndex = 0;
-		for (Annotation[] annotations : parameterAnnotations) {
-			if (Arrays.asList(annotations).stream().filter(IOHeaders.class::isInstance).count() != 0) {
-				return parameterIndex;
-			}
-
-			parameterIndex++;
+			Map<IOEventPayloadReference, String> resolved = payloadResolver.resolveAll(references.values());
+			references.forEach((inputName, reference) -> payloads.put(inputName, resolved.get(reference)));
 		}
-		return -1;
+		return payloads;
 	}
 
-	public List<Integer> getIOHeaderIndexList(Method method) {
-		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-		List<Integer> parameterIndexList = new ArrayList<>();
-		for (int i = 0; i < parameterAnnotations.length; i++) {
-			Annotation[] annotations = parameterAnnotations[i];
-			if (Arrays.asList(annotations).stream().filter(IOHeader.class::isInstance).count() != 0) {
-				parameterIndexList.add(i);
-			}
+	private Object bindHeader(ParameterBinding binding, Map<String, Object> headersMap)
+			throws JsonProcessingException {
+		if (binding.getType() == BindingType.HEADERS) {
+			return headersMap;
 		}
-		return parameterIndexList;
+		Object headerValue = headersMap.get(binding.getHeaderName());
+		return headerValue != null ? parseConsumedValue(headerValue, binding.getParameterType()) : null;
 	}
 
-	public Map<Integer, Object> getParamMap(Method method, String consumerValue, Map<String, Object> headersMap)
-			throws JsonProcessingException {
-		Class[] parameterTypes = method.getParameterTypes();
-		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-		Map<Integer, Object> paramMap = new HashMap<>();
-		for (int i = 0; i < parameterAnnotations.length; i++) {
-			Annotation[] annotations = parameterAnnotations[i];
-			if (Arrays.asList(annotations).stream().filter(IOPayload.class::isInstance).count() != 0) {
-				paramMap.put(i, parseConsumedValue(consumerValue, parameterTypes[i]));
-			}
-			if (Arrays.asList(annotations).stream().filter(IOHeader.class::isInstance).count() != 0) {
-				for (Annotation annotation : annotations) {
-					IOHeader ioHeader = (IOHeader) annotation;
-					paramMap.put(i,
-							headersMap.get(ioHeader.value()) != null
-									? parseConsumedValue(headersMap.get(ioHeader.value()), parameterTypes[i])
-									: "no such header exist");
-				}
-
-			}
-			if (Arrays.asList(annotations).stream().filter(IOHeaders.class::isInstance).count() != 0) {
-				paramMap.put(i, headersMap);
+	private Map<String, Object> toHeadersMap(List<Header> headerList) {
+		Map<String, Object> headersMap = new HashMap<>();
+		if (headerList != null) {
+			for (Header header : headerList) {
+				headersMap.put(header.key(), new String(header.value(), StandardCharsets.UTF_8));
 			}
 		}
-		return paramMap;
-
+		return headersMap;
 	}
 
 	public List<String> parseStringToArray(String s) {
@@ -356,27 +680,27 @@ public class RecordsHandler {
 	}
 
 	public IOEventRecordInfo getIOEventHeaders(ConsumerRecord<String, String> consumerRecord) {
+		return getIOEventHeaders(new IOEventRecordHeaders(consumerRecord.headers()));
+	}
+
+	/**
+	 * create the ioeventRecordInfo handed to the invoked method from the headers
+	 * decoded once per record,
+	 * 
+	 * @param recordHeaders for the decoded headers of the consumed record,
+	 * @return IOEventRecordInfo,
+	 */
+	public IOEventRecordInfo getIOEventHeaders(IOEventRecordHeaders recordHeaders) {
 		IOEventRecordInfo ioeventRecordInfo = new IOEventRecordInfo();
-		ioeventRecordInfo.setHeaderList(Arrays.asList(consumerRecord.headers().toArray()).stream()
-				.filter(header -> !header.key().equals("spring_json_header_types"))
-				.filter(header -> !header.key().equals(IOEventHeaders.ERROR_TYPE.toString())
-						&& !header.key().equals(IOEventHeaders.ERROR_MESSAGE.toString())
-						&& !header.key().equals(IOEventHeaders.ERROR_TRACE.toString()))
-				.filter(header -> !header.key().equals(IOEventHeaders.RESUME.toString()))
-				.collect(Collectors.toList()));
+		ioeventRecordInfo.setHeaderList(recordHeaders.getHeaderList());
+		ioeventRecordInfo.setOutputConsumedName(recordHeaders.getOutputEvent());
+		ioeventRecordInfo.setId(recordHeaders.getCorrelationId());
+		ioeventRecordInfo.setWorkFlowName(recordHeaders.getProcessName());
+		ioeventRecordInfo.setInstanceStartTime(recordHeaders.getStartInstanceTime());
 		StopWatch watch = new StopWatch();
-		consumerRecord.headers().forEach(header -> {
-			if (header.key().equals(IOEventHeaders.OUTPUT_EVENT.toString())) {
-				ioeventRecordInfo.setOutputConsumedName(new String(header.value()));
-			} else if (header.key().equals(IOEventHeaders.CORRELATION_ID.toString())) {
-				ioeventRecordInfo.setId(new String(header.value()));
-				watch.start(new String(header.value()));
-			} else if (header.key().equals(IOEventHeaders.PROCESS_NAME.toString())) {
-				ioeventRecordInfo.setWorkFlowName(new String(header.value()));
-			} else if (header.key().equals(IOEventHeaders.START_INSTANCE_TIME.toString())) {
-				ioeventRecordInfo.setInstanceStartTime(Long.valueOf(new String(header.value())));
-			}
-		});
+		if (recordHeaders.getCorrelationId() != null) {
+			watch.start(recordHeaders.getCorrelationId());
+		}
 		ioeventRecordInfo.setWatch(watch);
 		return ioeventRecordInfo;
 	}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool of consumers shared by all the @IOEvent methods of the application, used
+ * when ioevent.consumer_pool is enabled instead of the dedicated listeners
+ * created for each input topic. The steps are registered with their input topics
+ * by the bean post processor and once the context is refreshed the listener
+ * bootstrap starts a fixed number of listeners which subscribe to all the input
+ * topics and dispatch the records with a topic aware routing table.
+ */
+@Slf4j
+public class IOEventConsumerPool {
+
+	@Autowired
+	private ListenerCreator listenerCreator;
+	@Autowired
+	private IOEventProperties iOEventProperties;
+	@Value("#{'${spring.kafka.consumer.group-id:${ioevent.group_id:${spring.application.name:ioevent_default_groupid}}}'}")
+	private String kafkaGroupid;
+
+	private final Map<String, Set<BeanMethodPair>> pairsByTopic = new LinkedHashMap<>();
+	private volatile IOEventRoutingTable routingTable = IOEventRoutingTable.ofTopics(null);
+	private boolean started = false;
+
+	public boolean isEnabled() {
+		return Boolean.TRUE.equals(iOEventProperties.getConsumer_pool());
+	}
+
+	/**
+	 * method returns the number of consumers of the pool, the number of available
+	 * processors when ioevent.consumer_pool_size is not set,
+	 * 
+	 * @return int,
+	 */
+	public int getPoolSize() {
+		int poolSize = iOEventProperties.getConsumer_pool_size();
+		return (poolSize > 0) ? poolSize : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * register a step waiting for events of the topic given,
+	 * 
+	 * @param topicName for the prefixed input topic name,
+	 * @param pair      for the step bean method pair,
+	 */
+	public synchronized void register(String topicName, BeanMethodPair pair) {
+		pairsByTopic.computeIfAbsent(topicName, t -> new LinkedHashSet<>()).add(pair);
+		routingTable = IOEventRoutingTable.ofTopics(pairsByTopic);
+		if (started) {
+			log.warn("step " + pair.getMethod() + " registered after the consumer pool start, only the topics "
+					+ routingTable.getTopics() + " known at start are consumed");
+		}
+	}
+
+	public IOEventRoutingTable getRoutingTable() {
+		return routingTable;
+	}
+
+	/**
+	 * start the consumers of the pool once all the steps are registered, called by
+	 * the listener bootstrap when the context is refreshed,
+	 * 
+	 * @param onJoined for the callback run by each consumer once it joined the
+	 *                 group,
+	 * @param onFailed for the callback run by each consumer which failed,
+	 * @return the number of consumers started,
+	 */
+	public synchronized int start(Runnable onJoined, Runnable onFailed) {
+		if (started || !isEnabled() || pairsByTopic.isEmpty()) {
+			return 0;
+		}
+		started = true;
+		IOEventRoutingTable poolRoutingTable = routingTable;
+		ArrayList<String> topicNames = new ArrayList<>(pairsByTopic.keySet());
+		int poolSize = getPoolSize();
+		log.info("starting " + poolSize + " pool consumers for topics " + topicNames);
+		for (int i = 0; i < poolSize; i++) {
+			IOEventThreads.newThread(Boolean.TRUE.equals(iOEventProperties.getVirtual_threads()),
+					"IOEvent Consumer Pool-" + i, () -> {
+						try {
+							listenerCreator.createPoolListener(topicNames, poolRoutingTable, kafkaGroupid, onJoined);
+						} catch (Throwable e) {
+							log.error("Pool listener creation failed   !!!", e);
+							if (onFailed != null) {
+								onFailed.run();
+							}
+						}
+					}).start();
+		}
+		return poolSize;
+	}
+}
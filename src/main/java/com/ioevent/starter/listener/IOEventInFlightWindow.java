@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Window of the records handed by a listener to the executor and not processed
+ * yet. The listener pauses its partitions when the depth of the window reaches
+ * the high watermark and resumes them once it drops to the low watermark.
+ */
+public class IOEventInFlightWindow {
+
+	public static final int DEFAULT_HIGH_WATERMARK = 1000;
+	public static final int DEFAULT_LOW_WATERMARK = 500;
+
+	private final int highWatermark;
+	private final int lowWatermark;
+	private final AtomicInteger depth = new AtomicInteger();
+
+	public IOEventInFlightWindow() {
+		this(DEFAULT_HIGH_WATERMARK, DEFAULT_LOW_WATERMARK);
+	}
+
+	public IOEventInFlightWindow(int highWatermark, int lowWatermark) {
+		if (highWatermark <= 0 || lowWatermark < 0 || lowWatermark >= highWatermark) {
+			throw new IllegalArgumentException("in flight watermarks must verify 0 <= low < high, high : "
+					+ highWatermark + " low : " + lowWatermark);
+		}
+		this.highWatermark = highWatermark;
+		this.lowWatermark = lowWatermark;
+	}
+
+	/** method called when a record is handed to the executor **/
+	public void acquire() {
+		depth.incrementAndGet();
+	}
+
+	/** method called when the processing of a record is over **/
+	public void release() {
+		depth.decrementAndGet();
+	}
+
+	public int getDepth() {
+		return depth.get();
+	}
+
+	public boolean isFull() {
+		return depth.get() >= highWatermark;
+	}
+
+	public boolean isDrained() {
+		return depth.get() <= lowWatermark;
+	}
+
+	public int getHighWatermark() {
+		return highWatermark;
+	}
+
+	public int getLowWatermark() {
+		return lowWatermark;
+	}
+}
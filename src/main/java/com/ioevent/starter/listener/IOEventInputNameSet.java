@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of input event names keyed by their UTF-8 bytes, used to check
+ * the raw OUTPUT_EVENT header of a record without decoding it. The names are
+ * stored in an open addressing table so a lookup hashes and compares the header
+ * bytes without any allocation.
+ */
+final class IOEventInputNameSet {
+
+	private final byte[][] slots;
+	private final int mask;
+
+	IOEventInputNameSet(Collection<String> inputNames) {
+		int capacity = Integer.highestOneBit(Math.max(1, inputNames.size()) * 2 + 1) << 1;
+		this.slots = new byte[capacity][];
+		this.mask = capacity - 1;
+		for (String inputName : inputNames) {
+			byte[] key = inputName.getBytes(StandardCharsets.UTF_8);
+			int index = indexOf(key);
+			slots[index] = key;
+		}
+	}
+
+	/**
+	 * method returns true if the bytes given are the UTF-8 bytes of one of the
+	 * names of the set,
+	 * 
+	 * @param name for the raw bytes of the name,
+	 * @return boolean,
+	 */
+	boolean contains(byte[] name) {
+		return name != null && slots[indexOf(name)] != null;
+	}
+
+	private int indexOf(byte[] key) {
+		int index = spread(Arrays.hashCode(key)) & mask;
+		while (slots[index] != null && !Arrays.equals(slots[index], key)) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
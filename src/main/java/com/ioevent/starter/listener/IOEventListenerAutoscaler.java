@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Autoscaler of the listeners of each input topic, enabled with
+ * ioevent.autoscale. The lag sampled by the listeners and the records waiting
+ * in their in flight window are checked periodically, a listener is added to a
+ * topic whose backlog per listener is above ioevent.autoscale_lag_high and the
+ * last listener of a topic whose backlog is under ioevent.autoscale_lag_low is
+ * retired, within the min and max listeners bounds. A single change is made per
+ * topic and per check, the topics with a listener starting or retiring are left
+ * unchanged until the listener joined its group or terminated.
+ */
+@Slf4j
+public class IOEventListenerAutoscaler {
+
+	@Autowired
+	private ListenerCreator listenerCreator;
+	@Autowired
+	private List<Listener> listeners;
+	@Autowired
+	private IOEventProperties iOEventProperties;
+	@Autowired
+	private IOEventConsumerPool consumerPool;
+	@Autowired
+	private AdminClient client;
+	@Value("#{'${spring.kafka.consumer.group-id:${ioevent.group_id:${spring.application.name:ioevent_default_groupid}}}'}")
+	private String kafkaGroupid;
+
+	private final Set<String> startingTopics = ConcurrentHashMap.newKeySet();
+	private final Map<String, Integer> partitionCounts = new ConcurrentHashMap<>();
+
+	/**
+	 * check the backlog of the listeners of each topic and add or retire a
+	 * listener when needed
+	 **/
+	@Scheduled(fixedDelayString = "${ioevent.autoscale_interval_ms:10000}",
+			initialDelayString = "${ioevent.autoscale_interval_ms:10000}")
+	public void autoscale() {
+		if (!Boolean.TRUE.equals(iOEventProperties.getAutoscale()) || consumerPool.isEnabled()) {
+			return;
+		}
+		Map<String, List<Listener>> listenersByTopic = new LinkedHashMap<>();
+		synchronized (listeners) {
+			listeners.removeIf(Listener::isTerminated);
+			for (Listener listener : listeners) {
+				listenersByTopic.computeIfAbsent(listener.getTopic(), topic -> new ArrayList<>()).add(listener);
+			}
+		}
+		listenersByTopic.forEach(this::autoscaleTopic);
+	}
+
+	/**
+	 * add or retire a listener of the topic given according to the backlog of its
+	 * listeners, the topics with a paused listener are left as they are since their
+	 * lag grows while they are paused,
+	 * 
+	 * @param topic          for the topic name,
+	 * @param topicListeners for the listeners consuming the topic,
+	 */
+	void autoscaleTopic(String topic, List<Listener> topicListeners) {
+		if (startingTopics.contains(topic)) {
+			return;
+		}
+		long backlog = 0;
+		for (Listener listener : topicListeners) {
+			if (!listener.isConsuming() || !listener.isJoined() || listener.isPauseRequested()
+					|| listener.getLag() < 0) {
+				return;
+			}
+			backlog += listener.getLag() + listener.getQueueDepth();
+		}
+		int listenerCount = topicListeners.size();
+		int decision = scaleDecision(backlog, listenerCount, getMaxListeners(topic, listenerCount));
+		if (decision > 0) {
+			addListener(topic, topicListeners.get(0).getBeanMethodPairs(), backlog);
+		} else if (decision < 0) {
+			Listener retired = topicListeners.get(listenerCount - 1);
+			log.info("retiring a listener of topic " + topic + ", backlog : " + backlog + ", listeners : "
+					+ (listenerCount - 1));
+			retired.shutdown();
+		}
+	}
+
+	/**
+	 * method returns 1 to add a listener, -1 to retire one and 0 to keep the
+	 * listeners of a topic,
+	 * 
+	 * @param backlog       for the lag and in flight records of the listeners,
+	 * @param listenerCount for the number of listeners of the topic,
+	 * @param maxListeners  for the maximum number of listeners of the topic,
+	 * @return int,
+	 */
+	int scaleDecision(long backlog, int listenerCount, int maxListeners) {
+		long backlogPerListener = backlog / Math.max(1, listenerCount);
+		if (backlogPerListener > iOEventProperties.getAutoscale_lag_high() && listenerCount < maxListeners) {
+			return 1;
+		}
+		int minListeners = Math.max(1, iOEventProperties.getAutoscale_min_listeners());
+		if (backlogPerListener <= iOEventProperties.getAutoscale_lag_low() && listenerCount > minListeners) {
+			return -1;
+		}
+		return 0;
+	}
+
+	/**
+	 * method returns the maximum number of listeners of the topic, the partition
+	 * count of the topic when ioevent.autoscale_max_listeners is not set since the
+	 * listeners above it would get no partition,
+	 * 
+	 * @param topic         for the topic name,
+	 * @param listenerCount for the current number of listeners,
+	 * @return int,
+	 */
+	int getMaxListeners(String topic, int listenerCount) {
+		if (iOEventProperties.getAutoscale_max_listeners() > 0) {
+			return iOEventProperties.getAutoscale_max_listeners();
+		}
+		Integer partitionCount = partitionCounts.get(topic);
+		if (partitionCount == null) {
+			try {
+				partitionCount = client.describeTopics(Collections.singleton(topic)).values().get(topic)
+						.get(10, TimeUnit.SECONDS).partitions().size();
+				partitionCounts.put(topic, partitionCount);
+			} catch (ExecutionException | TimeoutException e) {
+				log.warn("topic " + topic + " can't be described, its listeners are not scaled up : " + e.getMessage());
+				return listenerCount;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return listenerCount;
+			}
+		}
+		return partitionCount;
+	}
+
+	private void addListener(String topic, List<BeanMethodPair> beanMethodPairs, long backlog) {
+		log.info("adding a listener to topic " + topic + ", backlog : " + backlog);
+		startingTopics.add(topic);
+		List<BeanMethodPair> pairs = new ArrayList<>(beanMethodPairs);
+		IOEventThreads.newThread(Boolean.TRUE.equals(iOEventProperties.getVirtual_threads()),
+				"IOEvent Listener-" + topic, () -> {
+					try {
+						listenerCreator.createListener(pairs, topic, kafkaGroupid, () -> startingTopics.remove(topic));
+					} catch (Throwable e) {
+						log.error("Listener creation failed   !!!", e);
+					} finally {
+						startingTopics.remove(topic);
+					}
+				}).start();
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bootstrap of the listeners of the application. The bean post processor
+ * registers the steps with their input topics, once the context is refreshed
+ * all the input topics are described with a single admin call and the
+ * listeners are started concurrently, or the consumer pool is started when it
+ * is enabled. An IOEventListenersReadyEvent is published once every listener
+ * joined its consumer group or failed to be created, the failed listeners are
+ * counted in the event.
+ */
+@Slf4j
+public class IOEventListenerBootstrap implements ApplicationListener<ContextRefreshedEvent> {
+
+	@Autowired
+	private ListenerCreator listenerCreator;
+	@Autowired
+	private IOEventConsumerPool consumerPool;
+	@Autowired
+	private IOEventProperties iOEventProperties;
+	@Autowired
+	private AdminClient client;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	@Value("#{'${spring.kafka.consumer.group-id:${ioevent.group_id:${spring.application.name:ioevent_default_groupid}}}'}")
+	private String kafkaGroupid;
+
+	private final Map<String, Set<BeanMethodPair>> pairsByTopic = new LinkedHashMap<>();
+	private boolean started = false;
+	private volatile long startTime;
+	private volatile int expectedListeners = -1;
+	private final AtomicInteger joinedListeners = new AtomicInteger();
+	private final AtomicInteger failedListeners = new AtomicInteger();
+	private final AtomicBoolean readyPublished = new AtomicBoolean();
+	private final CountDownLatch ready = new CountDownLatch(1);
+
+	/**
+	 * register a step waiting for events of the topic given, the listeners of
+	 * the topics registered after the start are created right away,
+	 * 
+	 * @param topicName for the prefixed input topic name,
+	 * @param pair      for the step bean method pair,
+	 */
+	public synchronized void register(String topicName, BeanMethodPair pair) {
+		if (started) {
+			Map<String, Set<BeanMethodPair>> lateTopic = new LinkedHashMap<>();
+			lateTopic.put(topicName, new LinkedHashSet<>(Collections.singleton(pair)));
+			startListeners(lateTopic, null, null);
+			return;
+		}
+		pairsByTopic.computeIfAbsent(topicName, t -> new LinkedHashSet<>()).add(pair);
+	}
+
+	/**
+	 * start the listeners once all the steps are registered
+	 **/
+	@Override
+	public synchronized void onApplicationEvent(ContextRefreshedEvent event) {
+		if (started) {
+			return;
+		}
+		started = true;
+		startTime = System.currentTimeMillis();
+		int listenerCount = consumerPool.isEnabled() ? consumerPool.start(this::listenerJoined, this::listenerFailed)
+				: startListeners(pairsByTopic, this::listenerJoined, this::listenerFailed);
+		expectedListeners = listenerCount;
+		log.info(listenerCount + " IOEvent listeners started in " + (System.currentTimeMillis() - startTime) + " ms");
+		checkReady();
+	}
+
+	/**
+	 * describe the topics with a single admin call and start their listeners
+	 * concurrently, one listener for two partitions of the topic,
+	 * 
+	 * @param topics   for the steps waiting for events of each topic,
+	 * @param onJoined for the callback run by each listener once it joined the
+	 *                 group,
+	 * @param onFailed for the callback run when a listener can't be created,
+	 * @return the number of listeners started,
+	 */
+	int startListeners(Map<String, Set<BeanMethodPair>> topics, Runnable onJoined, Runnable onFailed) {
+		if (topics.isEmpty()) {
+			return 0;
+		}
+		Map<String, KafkaFuture<TopicDescription>> descriptions = client.describeTopics(topics.keySet()).values();
+		int listenerCount = 0;
+		for (Map.Entry<String, Set<BeanMethodPair>> topic : topics.entrySet()) {
+			int partitionNumber;
+			try {
+				partitionNumber = descriptions.get(topic.getKey()).get().partitions().size();
+			} catch (ExecutionException e) {
+				log.error("topic " + topic.getKey() + " can't be described, no listener is created for it : "
+						+ e.getMessage());
+				continue;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				log.error("listeners bootstrap interrupted");
+				break;
+			}
+			List<BeanMethodPair> pairs = new ArrayList<>(topic.getValue());
+			for (int i = 0; i < (partitionNumber / 2) + 1; i++) {
+				IOEventThreads.newThread(Boolean.TRUE.equals(iOEventProperties.getVirtual_threads()),
+						"IOEvent Listener-" + topic.getKey(), () -> {
+							try {
+								listenerCreator.createListener(pairs, topic.getKey(), kafkaGroupid, onJoined);
+							} catch (Throwable e) {
+								log.error("Listener creation failed   !!!", e);
+								if (onFailed != null) {
+									onFailed.run();
+								}
+							}
+						}).start();
+				listenerCount++;
+			}
+		}
+		return listenerCount;
+	}
+
+	private void listenerJoined() {
+		joinedListeners.incrementAndGet();
+		checkReady();
+	}
+
+	private void listenerFailed() {
+		failedListeners.incrementAndGet();
+		checkReady();
+	}
+
+	private void checkReady() {
+		int expected = expectedListeners;
+		int failed = failedListeners.get();
+		if (expected >= 0 && joinedListeners.get() + failed >= expected && readyPublished.compareAndSet(false, true)) {
+			long startupTime = System.currentTimeMillis() - startTime;
+			if (failed > 0) {
+				log.error(failed + " of the " + expected
+						+ " IOEvent listeners failed to start, the others joined their group in " + startupTime + " ms");
+			} else {
+				log.info("all the " + expected + " IOEvent listeners joined their group in " + startupTime + " ms");
+			}
+			ready.countDown();
+			eventPublisher.publishEvent(new IOEventListenersReadyEvent(this, expected, failed, startupTime));
+		}
+	}
+
+	/**
+	 * number of the listeners started at startup which couldn't be created,
+	 * 
+	 * @return int,
+	 */
+	public int getFailedListeners() {
+		return failedListeners.get();
+	}
+
+	public boolean isReady() {
+		return ready.getCount() == 0;
+	}
+
+	/**
+	 * wait for all the listeners started at startup to join their group or fail,
+	 * 
+	 * @param timeout for the maximum time to wait,
+	 * @param unit    for the unit of the timeout,
+	 * @return true if the listeners are ready,
+	 */
+	public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+		return ready.await(timeout, unit);
+	}
+}
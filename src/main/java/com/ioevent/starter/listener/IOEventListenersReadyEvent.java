@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published once all the listeners started at startup joined their
+ * consumer group or failed to be created, the application can rely on it to
+ * report its readiness when no listener failed.
+ */
+public class IOEventListenersReadyEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int listenerCount;
+	private final int failedListenerCount;
+	private final long startupTimeMs;
+
+	public IOEventListenersReadyEvent(Object source, int listenerCount, long startupTimeMs) {
+		this(source, listenerCount, 0, startupTimeMs);
+	}
+
+	public IOEventListenersReadyEvent(Object source, int listenerCount, int failedListenerCount, long startupTimeMs) {
+		super(source);
+		this.listenerCount = listenerCount;
+		this.failedListenerCount = failedListenerCount;
+		this.startupTimeMs = startupTimeMs;
+	}
+
+	public int getListenerCount() {
+		return listenerCount;
+	}
+
+	/**
+	 * number of the listeners which couldn't be created, the listeners are all
+	 * consuming when it is 0,
+	 * 
+	 * @return int,
+	 */
+	public int getFailedListenerCount() {
+		return failedListenerCount;
+	}
+
+	/**
+	 * time between the context refresh and the last listener joining its group,
+	 * 
+	 * @return the startup time in milliseconds,
+	 */
+	public long getStartupTimeMs() {
+		return startupTimeMs;
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Tracker of the records consumed by a listener and not processed yet, used to
+ * commit for each partition the offset following the last record of the
+ * contiguous range of processed records. A record routed to several methods is
+ * processed once all of them are over. The records are tracked from the
+ * consumer thread and completed from the threads running the methods.
+ */
+public class IOEventOffsetTracker {
+
+	private final Map<TopicPartition, PartitionTracker> partitions = new ConcurrentHashMap<>();
+	private final AtomicInteger completedSinceCommit = new AtomicInteger();
+
+	private static class PartitionTracker {
+		private final ConcurrentSkipListMap<Long, AtomicInteger> pending = new ConcurrentSkipListMap<>();
+		private volatile long highestPolled = -1;
+		private long lastCommitted = -1;
+	}
+
+	/**
+	 * track a polled record, called from the consumer thread before the record is
+	 * handed to the executor,
+	 * 
+	 * @param consumerRecord for the polled record,
+	 * @param invocations    for the number of methods invoked for the record,
+	 */
+	public void track(ConsumerRecord<?, ?> consumerRecord, int invocations) {
+		PartitionTracker tracker = partitions.computeIfAbsent(
+				new TopicPartition(consumerRecord.topic(), consumerRecord.partition()), p -> new PartitionTracker());
+		if (invocations > 0) {
+			tracker.pending.put(consumerRecord.offset(), new AtomicInteger(invocations));
+		}
+		tracker.highestPolled = Math.max(tracker.highestPolled, consumerRecord.offset());
+	}
+
+	/**
+	 * complete one invocation of a tracked record,
+	 * 
+	 * @param consumerRecord for the processed record,
+	 */
+	public void complete(ConsumerRecord<?, ?> consumerRecord) {
+		PartitionTracker tracker = partitions
+				.get(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()));
+		if (tracker == null) {
+			return;
+		}
+		AtomicInteger remaining = tracker.pending.get(consumerRecord.offset());
+		if (remaining != null && remaining.decrementAndGet() == 0) {
+			tracker.pending.remove(consumerRecord.offset());
+			completedSinceCommit.incrementAndGet();
+		}
+	}
+
+	/**
+	 * method returns the offsets to commit, the offset of the first pending record
+	 * of each partition or the offset following the last polled record when none
+	 * is pending, partitions without progress since the last commit are omitted,
+	 * 
+	 * @return map of the offsets by partition,
+	 */
+	public Map<TopicPartition, OffsetAndMetadata> committableOffsets() {
+		return committableOffsets(partitions.keySet());
+	}
+
+	/**
+	 * method returns the offsets to commit for the partitions given,
+	 * 
+	 * @param topicPartitions for the partitions,
+	 * @return map of the offsets by partition,
+	 */
+	public Map<TopicPartition, OffsetAndMetadata> committableOffsets(Collection<TopicPartition> topicPartitions) {
+		Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+		for (TopicPartition topicPartition : topicPartitions) {
+			PartitionTracker tracker = partitions.get(topicPartition);
+			if (tracker == null || tracker.highestPolled < 0) {
+				continue;
+			}
+			Map.Entry<Long, AtomicInteger> firstPending = tracker.pending.firstEntry();
+			long committable = (firstPending != null) ? firstPending.getKey() : tracker.highestPolled + 1;
+			if (committable > tracker.lastCommitted) {
+				offsets.put(topicPartition, new OffsetAndMetadata(committable));
+			}
+		}
+		return offsets;
+	}
+
+	/**
+	 * mark the offsets given as committed,
+	 * 
+	 * @param offsets for the committed offsets,
+	 */
+	public void committed(Map<TopicPartition, OffsetAndMetadata> offsets) {
+		offsets.forEach((topicPartition, offset) -> {
+			PartitionTracker tracker = partitions.get(topicPartition);
+			if (tracker != null) {
+				tracker.lastCommitted = Math.max(tracker.lastCommitted, offset.offset());
+			}
+		});
+	}
+
+	/**
+	 * stop tracking the partitions given, called when they are revoked,
+	 * 
+	 * @param topicPartitions for the revoked partitions,
+	 */
+	public void remove(Collection<TopicPartition> topicPartitions) {
+		topicPartitions.forEach(partitions::remove);
+	}
+
+	/**
+	 * method returns the number of records processed since the last commit,
+	 * 
+	 * @return int,
+	 */
+	public int getCompletedSinceCommit() {
+		return completedSinceCommit.get();
+	}
+
+	/** reset the number of records processed since the last commit **/
+	public void resetCompletedSinceCommit() {
+		completedSinceCommit.set(0);
+	}
+
+	/**
+	 * method returns the number of records not processed yet,
+	 * 
+	 * @return int,
+	 */
+	public int getPendingCount() {
+		return partitions.values().stream().mapToInt(tracker -> tracker.pending.size()).sum();
+	}
+}
@@ -16,25 +16,39 @@
 
 package com.ioevent.starter.listener;
 
-import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StopWatch;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
-import com.ioevent.starter.configuration.context.AppContext;
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.IOFlow;
 import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
 import com.ioevent.starter.domain.IOEventHeaders;
 import com.ioevent.starter.domain.IOEventParallelEventInformation;
-import com.ioevent.starter.handler.IOEventRecordInfo;
+import com.ioevent.starter.domain.IOEventType;
+import com.ioevent.starter.handler.IOEventPayloadCodec;
+import com.ioevent.starter.handler.IOEventStepRegistry;
 import com.ioevent.starter.handler.RecordsHandler;
-import com.ioevent.starter.service.IOEventContextHolder;
 import com.ioevent.starter.service.IOEventService;
 
 import lombok.extern.slf4j.Slf4j;
@@ -43,55 +57,54 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class IOEventParrallelListener {
 
-	ObjectMapper mapper = new ObjectMapper();
+	public static final String GATEWAY_TIMEOUT_OUTPUT = "IOEvent_Gateway_Timeout";
 
 	@Autowired
-	private List<Listener> listeners;
+	private IOEventPayloadCodec payloadCodec;
+
 	@Autowired
 	RecordsHandler recordsHandler;
 	@Autowired
-	private AppContext ctx;
+	private IOEventStepRegistry stepRegistry;
 
 	@Autowired
 	private IOEventService ioEventService;
 
-	@KafkaListener(topics = "ioevent-parallel-gateway-aggregation", containerFactory = "userKafkaListenerFactory", groupId = "#{'${spring.kafka.consumer.group-id:${ioevent.group_id:${spring.application.name:ioevent_default_groupid}}}'}")
-	public void consumeParallelEvent(String s)
-			throws JsonProcessingException, ClassNotFoundException, NoSuchMethodException, SecurityException {
+	@Autowired
+	private IOEventProperties iOEventProperties;
+
+	@Autowired
+	private KafkaTemplate<String, Object> kafkaTemplate;
+
+	private ThreadPoolExecutor completionExecutor;
+
+	private final AtomicLong failedCompletions = new AtomicLong();
+
+	@KafkaListener(topics = "#{@ioEventGatewayTopics.aggregationTopic}", containerFactory = "userKafkaListenerFactory", groupId = "#{'${spring.kafka.consumer.group-id:${ioevent.group_id:${spring.application.name:ioevent_default_groupid}}}'}")
+	public void consumeParallelEvent(String s) throws JsonProcessingException {
 		Gson gson = new Gson();
 		IOEventParallelEventInformation ioeventParallelEventInformation = gson.fromJson(s,
 				IOEventParallelEventInformation.class);
-		if ((ioeventParallelEventInformation != null) && (sameList(ioeventParallelEventInformation.getInputRequired(),
+		if ((ioeventParallelEventInformation != null) && ioeventParallelEventInformation.isTimeout()) {
+			sendTimeoutEvent(ioeventParallelEventInformation);
+		} else if ((ioeventParallelEventInformation != null) && (sameList(ioeventParallelEventInformation.getInputRequired(),
 				ioeventParallelEventInformation.getInputsArrived()))) {
 
-			try {
-				Object beanmObject = ctx.getApplicationContext()
-						.getBean(Class.forName(ioeventParallelEventInformation.getClassName()));
-				if (beanmObject != null) {
-					new Thread(() -> {
-					StopWatch watch = new StopWatch();
-					watch.start((String) ioeventParallelEventInformation.getHeaders()
-							.get(IOEventHeaders.CORRELATION_ID.toString()));
-					IOEventRecordInfo ioeventRecordInfo = new IOEventRecordInfo(
-							ioeventParallelEventInformation.getHeaders().get(IOEventHeaders.CORRELATION_ID.toString())
-									.toString(),
-							ioeventParallelEventInformation.getHeaders().get(IOEventHeaders.PROCESS_NAME.toString())
-									.toString(),
-							ioeventParallelEventInformation.getInputsArrived().toString(), watch,
-							Long.valueOf(ioeventParallelEventInformation.getHeaders()
-									.get(IOEventHeaders.START_INSTANCE_TIME.toString()).toString()),null);
-					IOEventContextHolder.setContext(ioeventRecordInfo);
-
+			BeanMethodPair pair = stepRegistry.getStep(ioeventParallelEventInformation.getStepId(),
+					ioeventParallelEventInformation.getClassName(), ioeventParallelEventInformation.getMethod());
+			if (pair != null) {
+				getCompletionExecutor().execute(() -> {
 					try {
-						invokeTargetMethod(ioeventParallelEventInformation.getMethod(), beanmObject,
-								ioeventParallelEventInformation);
+						invokeTargetMethod(pair, ioeventParallelEventInformation);
 					} catch (Throwable e) {
-						e.printStackTrace();
+						failedCompletions.incrementAndGet();
+						log.error("error while invoking parallel gateway method " + pair.getMethod(), e);
 					}
-					}).start();
-				}
-			} catch (Throwable e) {
-				log.error("error while invoking method ");
+				});
+			} else {
+				log.error("error while invoking method , no IOEvent step found for "
+						+ ioeventParallelEventInformation.getClassName() + "."
+						+ ioeventParallelEventInformation.getMethod());
 			}
 
 		} else {
@@ -101,43 +114,119 @@ public class IOEventParrallelListener {
 
 	}
 
-	/** method to invoke the method from a specific bean **/
-	public void invokeTargetMethod(String methodName, Object beanmObject,
-			IOEventParallelEventInformation parallelEventInformation) throws Throwable {
-		if (beanmObject != null) {
-
-			for (Method met : beanmObject.getClass().getDeclaredMethods()) {
-				if (met.getName().equals(methodName)) {
-					Method method = met;
-
-					for (Listener listener : listeners) {
-						Optional<BeanMethodPair> pair = listener.getBeanMethodPairs().stream().filter(
-								x -> (x.getBean().getClass().getName().equals(parallelEventInformation.getClassName())
-										&& x.getMethod().getName().equals(parallelEventInformation.getMethod())))
-								.findFirst();
-						if (pair.isPresent()) {
-							method = pair.get().getMethod();
-						}
-					}
-					Object[] params = recordsHandler.prepareParallelParameters(method, parallelEventInformation);
-					recordsHandler.invokeWithtwoParameter(method, beanmObject, params);
+	/**
+	 * method to send the timeout event of a parallel gateway join expired before
+	 * all its inputs arrived, the event is sent to the output topic of the step
+	 * with the IOEvent_Gateway_Timeout output key,
+	 * 
+	 * @param timeoutEvent for the expired join,
+	 */
+	public void sendTimeoutEvent(IOEventParallelEventInformation timeoutEvent) {
+		BeanMethodPair pair = stepRegistry.getStep(timeoutEvent.getStepId(), timeoutEvent.getClassName(),
+				timeoutEvent.getMethod());
+		if (pair == null) {
+			log.error("parallel gateway join expired, no IOEvent step found for " + timeoutEvent.getClassName() + "."
+					+ timeoutEvent.getMethod());
+			return;
+		}
+		log.warn("parallel gateway join expired for " + pair.getMethod().getName() + ", inputs arrived : "
+				+ timeoutEvent.getInputsArrived() + ", inputs required : " + timeoutEvent.getInputRequired());
+		kafkaTemplate.send(buildTimeoutMessage(pair, timeoutEvent));
+	}
 
-				}
-			}
+	/**
+	 * method to build the timeout event of an expired parallel gateway join,
+	 * 
+	 * @param pair         for the step bean method pair of the gateway,
+	 * @param timeoutEvent for the expired join,
+	 * @return Message,
+	 */
+	public Message<Object> buildTimeoutMessage(BeanMethodPair pair, IOEventParallelEventInformation timeoutEvent) {
+		IOEvent ioEvent = pair.getIoEvent();
+		IOFlow ioFlow = pair.getBean().getClass().getAnnotation(IOFlow.class);
+		Map<String, Object> headers = new HashMap<>(timeoutEvent.getHeaders());
+		headers.remove("spring_json_header_types");
+		String correlationId = (String) headers.get(IOEventHeaders.CORRELATION_ID.toString());
+		Object payload = (timeoutEvent.getValue() != null) ? timeoutEvent.getValue() : "";
+		return MessageBuilder.withPayload(payload).copyHeaders(headers)
+				.setHeader(KafkaHeaders.TOPIC,
+						iOEventProperties.getPrefix() + ioEventService.getOutputTopicName(ioEvent, ioFlow, ""))
+				.setHeader(KafkaHeaders.MESSAGE_KEY, correlationId)
+				.setHeader(IOEventHeaders.PROCESS_NAME.toString(),
+						ioEventService.getProcessName(ioEvent, ioFlow,
+								(String) headers.get(IOEventHeaders.PROCESS_NAME.toString())))
+				.setHeader(IOEventHeaders.CORRELATION_ID.toString(), correlationId)
+				.setHeader(IOEventHeaders.EVENT_TYPE.toString(), IOEventType.UNHANDLED_ERROR.toString())
+				.setHeader(IOEventHeaders.INPUT.toString(), timeoutEvent.getInputsArrived())
+				.setHeader(IOEventHeaders.OUTPUT_EVENT.toString(), GATEWAY_TIMEOUT_OUTPUT)
+				.setHeader(IOEventHeaders.STEP_NAME.toString(), ioEvent.key())
+				.setHeader(IOEventHeaders.API_KEY.toString(), ioEventService.getApiKey(iOEventProperties, ioFlow))
+				.setHeader(IOEventHeaders.START_TIME.toString(), System.currentTimeMillis())
+				.setHeader(IOEventHeaders.IMPLICIT_START.toString(), false)
+				.setHeader(IOEventHeaders.IMPLICIT_END.toString(), false)
+				.setHeader(IOEventHeaders.ERROR_TYPE.toString(), TimeoutException.class.getCanonicalName())
+				.setHeader(IOEventHeaders.ERROR_MESSAGE.toString(),
+						"parallel gateway join expired, inputs arrived : " + timeoutEvent.getInputsArrived()
+								+ ", inputs required : " + timeoutEvent.getInputRequired())
+				.build();
+	}
 
+	/**
+	 * method returns the executor running the methods of the completed joins,
+	 * created on first use with ioevent.parallel_executor_threads threads and a
+	 * queue of ioevent.parallel_executor_queue_capacity joins, once the queue is
+	 * full the joins run on the listener thread which slows down the consumption
+	 * of the aggregation topic,
+	 * 
+	 * @return ThreadPoolExecutor,
+	 */
+	public synchronized ThreadPoolExecutor getCompletionExecutor() {
+		if (completionExecutor == null) {
+			int threads = Math.max(1, iOEventProperties.getParallel_executor_threads());
+			AtomicInteger threadCount = new AtomicInteger();
+			completionExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(Math.max(1, iOEventProperties.getParallel_executor_queue_capacity())),
+					runnable -> new Thread(runnable, "IOEvent Parallel Gateway-" + threadCount.incrementAndGet()),
+					new ThreadPoolExecutor.CallerRunsPolicy());
+			completionExecutor.allowCoreThreadTimeOut(true);
 		}
+		return completionExecutor;
+	}
+
+	public long getFailedCompletions() {
+		return failedCompletions.get();
+	}
+
+	/** wait for the methods of the completed joins to be over on shutdown **/
+	@PreDestroy
+	public void shutdownCompletionExecutor() throws InterruptedException {
+		ThreadPoolExecutor executor;
+		synchronized (this) {
+			executor = completionExecutor;
+		}
+		if (executor != null) {
+			executor.shutdown();
+			if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+				log.warn(executor.getQueue().size() + " completed parallel gateway joins not processed on shutdown");
+			}
+		}
+	}
+
+	/** method to invoke the method of a step with the joined parallel event **/
+	public void invokeTargetMethod(BeanMethodPair pair, IOEventParallelEventInformation parallelEventInformation)
+			throws Throwable {
+		recordsHandler.invokeParallelJoin(pair, parallelEventInformation);
 	}
 
 	public Object parseConsumedValue(Object consumedValue, Class<?> type) throws JsonProcessingException {
 		if (type.equals(String.class)) {
 			return consumedValue;
 		} else {
-			return mapper.readValue(consumedValue.toString(), type);
+			return payloadCodec.decode(consumedValue.toString(), type);
 		}
 	}
 
 	public boolean sameList(List<String> firstList, List<String> secondList) {
-		return (firstList.size() == secondList.size() && firstList.containsAll(secondList)
-				&& secondList.containsAll(firstList));
+		return (firstList.size() == secondList.size() && new HashSet<>(firstList).equals(new HashSet<>(secondList)));
 	}
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.time.Duration;
+
+/**
+ * Adaptive poll timeout of a listener, the timeout is doubled after each empty
+ * poll up to the maximum timeout so idle listeners stop spinning, and goes back
+ * to the minimum timeout as soon as records are returned.
+ */
+public class IOEventPollStrategy {
+
+	private final long minTimeoutMs;
+	private final long maxTimeoutMs;
+	private long currentTimeoutMs;
+
+	public IOEventPollStrategy(long minTimeoutMs, long maxTimeoutMs) {
+		if (minTimeoutMs <= 0 || maxTimeoutMs < minTimeoutMs) {
+			throw new IllegalArgumentException(
+					"poll timeouts must verify 0 < min <= max, min : " + minTimeoutMs + " max : " + maxTimeoutMs);
+		}
+		this.minTimeoutMs = minTimeoutMs;
+		this.maxTimeoutMs = maxTimeoutMs;
+		this.currentTimeoutMs = minTimeoutMs;
+	}
+
+	/**
+	 * method returns the timeout of the next poll,
+	 * 
+	 * @return Duration,
+	 */
+	public Duration nextTimeout() {
+		return Duration.ofMillis(currentTimeoutMs);
+	}
+
+	/**
+	 * update the timeout with the number of records returned by the last poll,
+	 * 
+	 * @param recordCount for the number of records polled,
+	 */
+	public void onPoll(int recordCount) {
+		if (recordCount > 0) {
+			currentTimeoutMs = minTimeoutMs;
+		} else {
+			currentTimeoutMs = Math.min(currentTimeoutMs * 2, maxTimeoutMs);
+		}
+	}
+
+	/** go back to the minimum timeout, used when the listener must react quickly **/
+	public void reset() {
+		currentTimeoutMs = minTimeoutMs;
+	}
+
+	public long getMinTimeoutMs() {
+		return minTimeoutMs;
+	}
+
+	public long getMaxTimeoutMs() {
+		return maxTimeoutMs;
+	}
+}
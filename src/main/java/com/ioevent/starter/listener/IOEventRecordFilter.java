@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import com.ioevent.starter.domain.IOEventHeaders;
+
+/**
+ * Filter applied by a listener to the records polled before they are decoded,
+ * only the raw OUTPUT_EVENT header is read and checked against the input names
+ * of the routing table, the records that no method waits for are skipped. The
+ * counters are updated by the consumer thread only and can be read from any
+ * thread to decide when a topic shared by many steps should be split.
+ */
+public class IOEventRecordFilter {
+
+	private static final String OUTPUT_EVENT = IOEventHeaders.OUTPUT_EVENT.toString();
+
+	private volatile long accepted;
+	private volatile long skipped;
+
+	/**
+	 * method returns true if a method of the routing table waits for the record,
+	 * 
+	 * @param consumerRecord for the polled record,
+	 * @param routingTable   for the routing table of the listener,
+	 * @return boolean,
+	 */
+	public boolean accept(ConsumerRecord<?, ?> consumerRecord, IOEventRoutingTable routingTable) {
+		Header outputEvent = consumerRecord.headers().lastHeader(OUTPUT_EVENT);
+		if (outputEvent != null && routingTable.accepts(consumerRecord.topic(), outputEvent.value())) {
+			accepted++;
+			return true;
+		}
+		skipped++;
+		return false;
+	}
+
+	public long getAccepted() {
+		return accepted;
+	}
+
+	public long getSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * ratio of the records skipped among the records polled,
+	 * 
+	 * @return double between 0 and 1, 0 if no record was polled,
+	 */
+	public double getSkippedRatio() {
+		long total = accepted + skipped;
+		return (total == 0) ? 0 : (double) skipped / total;
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+
+/**
+ * Immutable routing table of a listener which maps each input event name to
+ * the bean method pairs waiting for it, the table is built once when the
+ * listener is registered and replaced as a whole when a new pair is added so
+ * that the records handler dispatch a record with a single lookup. The table of
+ * a listener consuming several topics maps the input event names of each topic
+ * separately. The input names are also kept as raw bytes so the records can be
+ * filtered on their OUTPUT_EVENT header before being decoded.
+ */
+public final class IOEventRoutingTable {
+
+	private static final IOEventRoutingTable EMPTY = new IOEventRoutingTable(Collections.emptyMap(),
+			Collections.emptyList());
+
+	private final List<BeanMethodPair> beanMethodPairs;
+	private final Map<String, List<BeanMethodPair>> routes;
+	private final Map<String, Map<String, List<BeanMethodPair>>> topicRoutes;
+	private final IOEventInputNameSet inputNameSet;
+	private final Map<String, IOEventInputNameSet> topicInputNameSets;
+
+	private IOEventRoutingTable(Collection<BeanMethodPair> beanMethodPairs) {
+		this.routes = buildRoutes(beanMethodPairs);
+		this.topicRoutes = Collections.emptyMap();
+		this.beanMethodPairs = Collections.unmodifiableList(new ArrayList<>(beanMethodPairs));
+		this.inputNameSet = new IOEventInputNameSet(routes.keySet());
+		this.topicInputNameSets = Collections.emptyMap();
+	}
+
+	private IOEventRoutingTable(Map<String, ? extends Collection<BeanMethodPair>> pairsByTopic,
+			Collection<BeanMethodPair> beanMethodPairs) {
+		Map<String, Map<String, List<BeanMethodPair>>> table = new HashMap<>();
+		pairsByTopic.forEach((topic, pairs) -> table.put(topic, buildRoutes(pairs)));
+		this.topicRoutes = Collections.unmodifiableMap(table);
+		this.routes = buildRoutes(beanMethodPairs);
+		this.beanMethodPairs = Collections.unmodifiableList(new ArrayList<>(beanMethodPairs));
+		this.inputNameSet = new IOEventInputNameSet(routes.keySet());
+		Map<String, IOEventInputNameSet> nameSets = new HashMap<>();
+		table.forEach((topic, topicTable) -> nameSets.put(topic, new IOEventInputNameSet(topicTable.keySet())));
+		this.topicInputNameSets = Collections.unmodifiableMap(nameSets);
+	}
+
+	private static Map<String, List<BeanMethodPair>> buildRoutes(Collection<BeanMethodPair> beanMethodPairs) {
+		Map<String, List<BeanMethodPair>> table = new HashMap<>();
+		for (BeanMethodPair pair : beanMethodPairs) {
+			for (String inputName : pair.getInputNames()) {
+				table.computeIfAbsent(inputName, name -> new ArrayList<>()).add(pair);
+			}
+		}
+		table.replaceAll((name, pairs) -> Collections.unmodifiableList(pairs));
+		return Collections.unmodifiableMap(table);
+	}
+
+	/**
+	 * method to build a routing table from bean method pairs,
+	 *
+	 * @param beanMethodPairs for the pairs handled by the listener,
+	 * @return IOEventRoutingTable,
+	 */
+	public static IOEventRoutingTable of(Collection<BeanMethodPair> beanMethodPairs) {
+		if (beanMethodPairs == null || beanMethodPairs.isEmpty()) {
+			return EMPTY;
+		}
+		return new IOEventRoutingTable(beanMethodPairs);
+	}
+
+	/**
+	 * method to build the routing table of a listener consuming several topics,
+	 *
+	 * @param pairsByTopic for the pairs waiting for events of each topic,
+	 * @return IOEventRoutingTable,
+	 */
+	public static IOEventRoutingTable ofTopics(Map<String, ? extends Collection<BeanMethodPair>> pairsByTopic) {
+		if (pairsByTopic == null || pairsByTopic.isEmpty()) {
+			return EMPTY;
+		}
+		Set<BeanMethodPair> beanMethodPairs = new LinkedHashSet<>();
+		pairsByTopic.values().forEach(beanMethodPairs::addAll);
+		return new IOEventRoutingTable(pairsByTopic, beanMethodPairs);
+	}
+
+	/**
+	 * method returns the pairs to invoke for the output event consumed,
+	 *
+	 * @param outputConsumedName for the OUTPUT_EVENT header of the record,
+	 * @return list of BeanMethodPair, empty if no method waits for this event,
+	 */
+	public List<BeanMethodPair> route(String outputConsumedName) {
+		if (outputConsumedName == null) {
+			return Collections.emptyList();
+		}
+		return routes.getOrDefault(outputConsumedName, Collections.emptyList());
+	}
+
+	/**
+	 * method returns the pairs to invoke for the output event consumed from the
+	 * topic given, the topic is ignored by the table of a single topic listener,
+	 *
+	 * @param topic              for the topic of the record,
+	 * @param outputConsumedName for the OUTPUT_EVENT header of the record,
+	 * @return list of BeanMethodPair, empty if no method waits for this event,
+	 */
+	public List<BeanMethodPair> route(String topic, String outputConsumedName) {
+		if (topicRoutes.isEmpty()) {
+			return route(outputConsumedName);
+		}
+		Map<String, List<BeanMethodPair>> routesOfTopic = topicRoutes.get(topic);
+		if (routesOfTopic == null || outputConsumedName == null) {
+			return Collections.emptyList();
+		}
+		return routesOfTopic.getOrDefault(outputConsumedName, Collections.emptyList());
+	}
+
+	/**
+	 * method returns true if a method waits for the output event consumed from the
+	 * topic given, the event name is checked as raw bytes without being decoded,
+	 *
+	 * @param topic       for the topic of the record,
+	 * @param outputEvent for the raw value of the OUTPUT_EVENT header,
+	 * @return boolean,
+	 */
+	public boolean accepts(String topic, byte[] outputEvent) {
+		if (topicInputNameSets.isEmpty()) {
+			return inputNameSet.contains(outputEvent);
+		}
+		IOEventInputNameSet topicInputNames = topicInputNameSets.get(topic);
+		return topicInputNames != null && topicInputNames.contains(outputEvent);
+	}
+
+	public Set<String> getInputNames() {
+		return routes.keySet();
+	}
+
+	public Set<String> getTopics() {
+		return topicRoutes.keySet();
+	}
+
+	/**
+	 * method returns the topics on which one of the pairs given waits for events,
+	 * empty for the table of a single topic listener,
+	 *
+	 * @param pairs for the bean method pairs,
+	 * @return set of topic names,
+	 */
+	public Set<String> getTopics(Collection<BeanMethodPair> pairs) {
+		Set<String> topics = new LinkedHashSet<>();
+		topicRoutes.forEach((topic, routesOfTopic) -> {
+			if (routesOfTopic.values().stream().flatMap(List::stream).anyMatch(pairs::contains)) {
+				topics.add(topic);
+			}
+		});
+		return topics;
+	}
+
+	public List<BeanMethodPair> getBeanMethodPairs() {
+		return beanMethodPairs;
+	}
+
+	public boolean isEmpty() {
+		return routes.isEmpty();
+	}
+}
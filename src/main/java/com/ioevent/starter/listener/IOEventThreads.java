@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Factory of the threads running the listeners loops and the @IOEvent methods.
+ * When the virtual threads mode is enabled and the runtime supports them (JDK
+ * 21+) the threads are virtual threads, otherwise platform threads are used as
+ * before. The virtual threads API is looked up by reflection so the starter
+ * still builds and runs on Java 11.
+ */
+@Slf4j
+public final class IOEventThreads {
+
+	private static final Method OF_VIRTUAL = lookupOfVirtual();
+
+	private IOEventThreads() {
+	}
+
+	/**
+	 * method returns true if the runtime supports virtual threads,
+	 * 
+	 * @return boolean,
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * method returns a factory of virtual threads named with the prefix given
+	 * followed by a counter,
+	 * 
+	 * @param prefix for the threads name prefix,
+	 * @return ThreadFactory or null if virtual threads are not supported,
+	 */
+	public static ThreadFactory virtualThreadFactory(String prefix) {
+		if (OF_VIRTUAL == null) {
+			return null;
+		}
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = OF_VIRTUAL.invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			log.warn("virtual threads can't be created, platform threads will be used instead", e);
+			return null;
+		}
+	}
+
+	/**
+	 * method returns an executor starting a virtual thread per task,
+	 * 
+	 * @param prefix for the threads name prefix,
+	 * @return Executor or null if virtual threads are not supported,
+	 */
+	public static Executor virtualThreadPerTaskExecutor(String prefix) {
+		ThreadFactory threadFactory = virtualThreadFactory(prefix);
+		if (threadFactory == null) {
+			return null;
+		}
+		return task -> threadFactory.newThread(task).start();
+	}
+
+	/**
+	 * method returns a new unstarted thread running the task given, a virtual
+	 * thread if requested and supported else a platform thread,
+	 * 
+	 * @param virtual for the virtual threads mode,
+	 * @param name    for the thread name,
+	 * @param task    for the task to run,
+	 * @return Thread,
+	 */
+	public static Thread newThread(boolean virtual, String name, Runnable task) {
+		if (virtual) {
+			ThreadFactory threadFactory = virtualThreadFactory(name);
+			if (threadFactory != null) {
+				return threadFactory.newThread(task);
+			}
+		}
+		return new Thread(task, name);
+	}
+
+	private static Method lookupOfVirtual() {
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			// JDK 19 and 20 expose the method as a preview feature and throw when preview is disabled
+			ofVirtual.invoke(null);
+			return ofVirtual;
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+}
@@ -22,12 +22,25 @@ package com.ioevent.starter.listener;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 
 import com.ioevent.starter.annotations.IOEvent;
 import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
@@ -49,7 +62,25 @@ public class Listener {
 	private Object bean;
 	private Method method;
 	private String topic;
-	private List<BeanMethodPair> beanMethodPairs = new ArrayList<>();
+	private volatile List<BeanMethodPair> beanMethodPairs = new ArrayList<>();
+	private volatile IOEventRoutingTable routingTable;
+	private IOEventInFlightWindow inFlightWindow = new IOEventInFlightWindow();
+	private volatile boolean paused = false;
+	private final Set<String> pausedTopics = ConcurrentHashMap.newKeySet();
+	private final IOEventOffsetTracker offsetTracker = new IOEventOffsetTracker();
+	private long commitIntervalMs = 1000;
+	private int commitCount = 500;
+	private long lastCommitTime = System.currentTimeMillis();
+	private IOEventPollStrategy pollStrategy = new IOEventPollStrategy(10, 10);
+	private long drainTimeoutMs = 30000;
+	private volatile long drainTimeMs = -1;
+	private final CountDownLatch terminated = new CountDownLatch(1);
+	private final IOEventRecordFilter recordFilter = new IOEventRecordFilter();
+	private Runnable onJoined;
+	private volatile boolean joined = false;
+	private long lagSampleIntervalMs = 1000;
+	private long lastLagSampleTime = 0;
+	private volatile long lag = -1;
 
 	/**
 	 * listener constructor
@@ -59,36 +90,293 @@ public class Listener {
 	 */
 	public Listener(final Consumer<String, String> consumer, final RecordsHandler recordsHandler, Object bean,
 			Method method, IOEvent ioEvent, String topicName) {
+		this(consumer, recordsHandler, new BeanMethodPair(bean, method, ioEvent), topicName);
+	}
+
+	/**
+	 * listener constructor
+	 * 
+	 * @param beanMethodPair for the first step handled by the listener,
+	 * @param topicName
+	 */
+	public Listener(final Consumer<String, String> consumer, final RecordsHandler recordsHandler,
+			BeanMethodPair beanMethodPair, String topicName) {
 		this.consumer = consumer;
 		this.recordsHandler = recordsHandler;
-		this.bean = bean;
-		this.method = method;
+		this.bean = beanMethodPair.getBean();
+		this.method = beanMethodPair.getMethod();
 		this.topic = topicName;
-		this.beanMethodPairs.add(new BeanMethodPair(bean, method, ioEvent));
+		this.beanMethodPairs.add(beanMethodPair);
+		this.routingTable = IOEventRoutingTable.of(this.beanMethodPairs);
 
 	}
 
+	/**
+	 * listener constructor for the listeners of the consumer pool
+	 * 
+	 * @param routingTable for the topic aware routing table of the pool,
+	 * @param topicNames   for the topics consumed separated by commas,
+	 */
+	public Listener(final Consumer<String, String> consumer, final RecordsHandler recordsHandler,
+			IOEventRoutingTable routingTable, String topicNames) {
+		this.consumer = consumer;
+		this.recordsHandler = recordsHandler;
+		this.topic = topicNames;
+		this.beanMethodPairs = new ArrayList<>(routingTable.getBeanMethodPairs());
+		this.routingTable = routingTable;
+	}
+
 	/**
 	 * run consumer to subscribe to the output topic and start consuming ,as soon as
-	 * we get a record we send the record to the handler
+	 * we get a record we send the record to the handler, the assigned partitions
+	 * are paused while the in flight window is full and resumed once it drains,
+	 * the partitions of the topics paused on request stay paused until resumed,
+	 * the offsets of the processed records are committed asynchronously every
+	 * commit interval or commit count and synchronously when partitions are revoked,
+	 * the poll timeout grows while the listener is idle, on shutdown the listener
+	 * drains its in flight records before the final commit
 	 **/
 	public void runConsume(final Properties consumerProps) throws Throwable {
 		try {
-			consumer.subscribe(Collections.singletonList(consumerProps.getProperty("topicName")));
+			consumer.subscribe(Arrays.asList(consumerProps.getProperty("topicName").split(",")),
+					new ConsumerRebalanceListener() {
+						@Override
+						public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+							if (recordsHandler != null) {
+								recordsHandler.forwardPendingJoins();
+							}
+							commitSync(offsetTracker.committableOffsets(partitions));
+							offsetTracker.remove(partitions);
+						}
+
+						@Override
+						public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+							pauseAssigned(partitions);
+							if (!joined) {
+								joined = true;
+								if (onJoined != null) {
+									onJoined.run();
+								}
+							}
+						}
+					});
 			while (keepConsuming) {
-				ConsumerRecords<String, String> consumerRecords = consumer.poll(Duration.ofMillis(10));
+				ConsumerRecords<String, String> consumerRecords;
+				try {
+					consumerRecords = consumer.poll(nextPollTimeout());
+				} catch (WakeupException e) {
+					if (keepConsuming) {
+						throw e;
+					}
+					break;
+				}
+				pollStrategy.onPoll(consumerRecords.count());
 				if (!consumerRecords.isEmpty()) {
-					recordsHandler.process(consumerRecords, this.beanMethodPairs);
+					recordsHandler.process(consumerRecords, this.routingTable, this.inFlightWindow,
+							this.offsetTracker, this.recordFilter);
 				}
+				applyBackpressure();
+				commitIfDue();
+				sampleLagIfDue();
 			}
-			
+
 		} finally {
-			consumer.close();
+			try {
+				drain();
+				commitSync(offsetTracker.committableOffsets());
+				consumer.close();
+			} finally {
+				terminated.countDown();
+			}
+		}
+	}
+
+	/**
+	 * pause the assigned partitions and wait for the in flight records to be
+	 * processed, within the drain timeout, the output events sent while processing
+	 * them are flushed so the final commit never covers unsent events, polling goes
+	 * on while waiting so the consumer keeps its partitions and the async commits
+	 * complete
+	 **/
+	void drain() {
+		long start = System.currentTimeMillis();
+		long deadline = start + drainTimeoutMs;
+		if (inFlightWindow.getDepth() > 0) {
+			consumer.pause(consumer.assignment());
+			paused = true;
+			log.info("draining listener for topic " + topic + ", in flight records : " + inFlightWindow.getDepth());
+			while (inFlightWindow.getDepth() > 0 && System.currentTimeMillis() < deadline) {
+				try {
+					consumer.poll(Duration.ofMillis(pollStrategy.getMinTimeoutMs()));
+					commitIfDue();
+				} catch (WakeupException e) {
+					// a second shutdown request, the drain goes on until the timeout
+				} catch (KafkaException e) {
+					log.warn("listener drain interrupted for topic " + topic + " : " + e.getMessage());
+					break;
+				}
+			}
+		}
+		if (inFlightWindow.getDepth() > 0) {
+			log.warn("listener drain timeout for topic " + topic + ", " + inFlightWindow.getDepth()
+					+ " in flight records will be consumed again");
+		}
+		if (recordsHandler != null) {
+			recordsHandler.flushOutputEvents();
+		}
+		drainTimeMs = System.currentTimeMillis() - start;
+	}
+
+	/**
+	 * wait for the consuming loop to end and the consumer to be closed,
+	 * 
+	 * @param timeout for the maximum time to wait,
+	 * @param unit    for the unit of the timeout,
+	 * @return true if the listener is terminated,
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return terminated.await(timeout, unit);
+	}
+
+	public boolean isTerminated() {
+		return terminated.getCount() == 0;
+	}
+
+	/**
+	 * method returns the timeout of the next poll, the minimum timeout is used
+	 * while paused so the partitions are resumed as soon as the window drains
+	 **/
+	Duration nextPollTimeout() {
+		return paused ? Duration.ofMillis(pollStrategy.getMinTimeoutMs()) : pollStrategy.nextTimeout();
+	}
+
+	/**
+	 * commit asynchronously the offsets of the processed records when the commit
+	 * interval is elapsed or when the commit count is reached
+	 **/
+	void commitIfDue() {
+		long now = System.currentTimeMillis();
+		if (offsetTracker.getCompletedSinceCommit() < commitCount && now - lastCommitTime < commitIntervalMs) {
+			return;
+		}
+		lastCommitTime = now;
+		offsetTracker.resetCompletedSinceCommit();
+		Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committableOffsets();
+		if (offsets.isEmpty()) {
+			return;
+		}
+		consumer.commitAsync(offsets, (committedOffsets, exception) -> {
+			if (exception != null) {
+				log.warn("offsets commit failed for topic " + topic + " : " + exception.getMessage());
+			} else {
+				offsetTracker.committed(committedOffsets);
+			}
+		});
+	}
+
+	/**
+	 * commit synchronously the offsets given, the commit is retried once when it
+	 * is interrupted by the wakeup of a shutdown request received while the
+	 * consuming thread was outside of poll
+	 * 
+	 * @param offsets for the offsets to commit,
+	 */
+	void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+		if (offsets.isEmpty()) {
+			return;
+		}
+		try {
+			try {
+				consumer.commitSync(offsets);
+			} catch (WakeupException e) {
+				consumer.commitSync(offsets);
+			}
+			offsetTracker.committed(offsets);
+		} catch (KafkaException e) {
+			log.warn("offsets commit failed for topic " + topic + " : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * sample the lag of the assigned partitions from the positions and end offsets
+	 * known by the consumer, without any request to the brokers, the lag is read by
+	 * the autoscaler from another thread
+	 **/
+	void sampleLagIfDue() {
+		long now = System.currentTimeMillis();
+		if (now - lastLagSampleTime < lagSampleIntervalMs) {
+			return;
+		}
+		lastLagSampleTime = now;
+		long totalLag = 0;
+		for (TopicPartition partition : consumer.assignment()) {
+			OptionalLong partitionLag = consumer.currentLag(partition);
+			if (partitionLag.isPresent()) {
+				totalLag += partitionLag.getAsLong();
+			}
+		}
+		lag = totalLag;
+	}
+
+	/**
+	 * pause the partitions newly assigned while the listener is paused or when
+	 * their topic is paused,
+	 * 
+	 * @param partitions for the assigned partitions,
+	 */
+	void pauseAssigned(Collection<TopicPartition> partitions) {
+		List<TopicPartition> pausedPartitions = new ArrayList<>();
+		for (TopicPartition partition : partitions) {
+			if (paused || pausedTopics.contains(partition.topic())) {
+				pausedPartitions.add(partition);
+			}
+		}
+		if (!pausedPartitions.isEmpty()) {
+			consumer.pause(pausedPartitions);
+		}
+	}
+
+	/**
+	 * pause the assigned partitions when the in flight window reaches its high
+	 * watermark and resume them once the window drops to its low watermark, the
+	 * partitions of the topics paused on request are paused whatever the window
+	 * and only resumed once their topic is resumed, polling goes on while paused
+	 * so the consumer stays in its group
+	 **/
+	void applyBackpressure() {
+		if (paused) {
+			if (inFlightWindow.isDrained()) {
+				paused = false;
+				log.info("listener resumed for topic " + topic + ", in flight records : " + inFlightWindow.getDepth());
+			}
+		} else if (inFlightWindow.isFull()) {
+			paused = true;
+			log.info("listener paused for topic " + topic + ", in flight records : " + inFlightWindow.getDepth());
+		}
+		Set<TopicPartition> pausedPartitions = consumer.paused();
+		List<TopicPartition> toPause = new ArrayList<>();
+		List<TopicPartition> toResume = new ArrayList<>();
+		for (TopicPartition partition : consumer.assignment()) {
+			boolean pause = paused || pausedTopics.contains(partition.topic());
+			if (pause && !pausedPartitions.contains(partition)) {
+				toPause.add(partition);
+			} else if (!pause && pausedPartitions.contains(partition)) {
+				toResume.add(partition);
+			}
+		}
+		if (!toPause.isEmpty()) {
+			consumer.pause(toPause);
+		}
+		if (!toResume.isEmpty()) {
+			consumer.resume(toResume);
 		}
 	}
 
 	public void shutdown() {
 		keepConsuming = false;
+		if (consumer != null) {
+			consumer.wakeup();
+		}
 	}
 
 	public Object getBean() {
@@ -119,11 +407,184 @@ public class Listener {
 		return beanMethodPairs;
 	}
 
-	public void setBeanMethodPairs(List<BeanMethodPair> beanMethodPairs) {
+	public synchronized void setBeanMethodPairs(List<BeanMethodPair> beanMethodPairs) {
 		this.beanMethodPairs = beanMethodPairs;
+		this.routingTable = IOEventRoutingTable.of(beanMethodPairs);
+	}
+
+	public IOEventPollStrategy getPollStrategy() {
+		return pollStrategy;
 	}
 
-	public void addBeanMethod(BeanMethodPair beanMethod) {
+	public void setPollStrategy(IOEventPollStrategy pollStrategy) {
+		this.pollStrategy = pollStrategy;
+	}
+
+	/**
+	 * set the callback run once the listener joined its consumer group, on the
+	 * first partitions assignment even if no partition is assigned,
+	 * 
+	 * @param onJoined for the callback,
+	 */
+	public void setOnJoined(Runnable onJoined) {
+		this.onJoined = onJoined;
+	}
+
+	public boolean isJoined() {
+		return joined;
+	}
+
+	/**
+	 * lag of the partitions assigned to the listener at the last sample,
+	 * 
+	 * @return the number of records not consumed yet, -1 before the first sample,
+	 */
+	public long getLag() {
+		return lag;
+	}
+
+	/**
+	 * method returns false once the listener is asked to shutdown,
+	 * 
+	 * @return boolean,
+	 */
+	public boolean isConsuming() {
+		return keepConsuming;
+	}
+
+	public IOEventRecordFilter getRecordFilter() {
+		return recordFilter;
+	}
+
+	public IOEventOffsetTracker getOffsetTracker() {
+		return offsetTracker;
+	}
+
+	public void setCommitIntervalMs(long commitIntervalMs) {
+		this.commitIntervalMs = commitIntervalMs;
+	}
+
+	public void setCommitCount(int commitCount) {
+		this.commitCount = commitCount;
+	}
+
+	public void setDrainTimeoutMs(long drainTimeoutMs) {
+		this.drainTimeoutMs = drainTimeoutMs;
+	}
+
+	/**
+	 * time spent by the listener draining its in flight records on shutdown,
+	 * 
+	 * @return the drain time in milliseconds, -1 while the listener is running,
+	 */
+	public long getDrainTimeMs() {
+		return drainTimeMs;
+	}
+
+	public IOEventInFlightWindow getInFlightWindow() {
+		return inFlightWindow;
+	}
+
+	public void setInFlightWindow(IOEventInFlightWindow inFlightWindow) {
+		this.inFlightWindow = inFlightWindow;
+	}
+
+	/**
+	 * number of records handed to the executor and not processed yet,
+	 * 
+	 * @return the queue depth of the listener,
+	 */
+	public int getQueueDepth() {
+		return inFlightWindow.getDepth();
+	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * request the listener to pause all its topics until resumeConsumption is
+	 * called, the request is applied by the consuming thread after its next poll
+	 **/
+	public void pauseConsumption() {
+		pauseTopics(Arrays.asList(topic.split(",")));
+	}
+
+	/**
+	 * cancel the pause requests of all the topics, the partitions are resumed
+	 * once the in flight window is drained
+	 **/
+	public void resumeConsumption() {
+		pausedTopics.clear();
+	}
+
+	/**
+	 * request the listener to pause the partitions of the topics given, the other
+	 * topics of the listener are still consumed, the topics the listener doesn't
+	 * consume are ignored,
+	 * 
+	 * @param topics for the topics to pause,
+	 */
+	public void pauseTopics(Collection<String> topics) {
+		List<String> listenerTopics = Arrays.asList(topic.split(","));
+		topics.stream().filter(listenerTopics::contains).forEach(pausedTopics::add);
+	}
+
+	/**
+	 * cancel the pause request of the topics given,
+	 * 
+	 * @param topics for the topics to resume,
+	 */
+	public void resumeTopics(Collection<String> topics) {
+		pausedTopics.removeAll(topics);
+	}
+
+	/**
+	 * method returns the topics of the listener on which the steps given wait for
+	 * events, all the topics of the listener when it doesn't route by topic,
+	 * 
+	 * @param pairs for the steps,
+	 * @return list of topic names,
+	 */
+	public List<String> getTopicsOf(Collection<BeanMethodPair> pairs) {
+		IOEventRoutingTable table = this.routingTable;
+		if (table.getTopics().isEmpty()) {
+			return Arrays.asList(topic.split(","));
+		}
+		return new ArrayList<>(table.getTopics(pairs));
+	}
+
+	public boolean isPauseRequested() {
+		return !pausedTopics.isEmpty();
+	}
+
+	public Set<String> getPausedTopics() {
+		return Collections.unmodifiableSet(pausedTopics);
+	}
+
+	/**
+	 * replace the routing table of the listener, used to update the table of the
+	 * consumer pool listeners
+	 * 
+	 * @param routingTable for the new routing table,
+	 */
+	public synchronized void setRoutingTable(IOEventRoutingTable routingTable) {
+		this.beanMethodPairs = new ArrayList<>(routingTable.getBeanMethodPairs());
+		this.routingTable = routingTable;
+	}
+
+	public IOEventRoutingTable getRoutingTable() {
+		return routingTable;
+	}
+
+	/**
+	 * add a bean method pair to the listener if it's not already registered, the
+	 * routing table is rebuilt and swapped atomically so the consuming thread
+	 * always sees a complete table
+	 * 
+	 * @param beanMethod for the pair to add,
+	 */
+	public synchronized void addBeanMethod(BeanMethodPair beanMethod) {
 		boolean valid = true;
 		for (BeanMethodPair beanMethodPair : beanMethodPairs) {
 			if ((beanMethod.getBean().equals(beanMethodPair.getBean())
@@ -132,7 +593,10 @@ public class Listener {
 			}
 		}
 		if (valid) {
-			this.beanMethodPairs.add(beanMethod);
+			List<BeanMethodPair> updatedPairs = new ArrayList<>(this.beanMethodPairs);
+			updatedPairs.add(beanMethod);
+			this.beanMethodPairs = updatedPairs;
+			this.routingTable = IOEventRoutingTable.of(updatedPairs);
 
 		}
 
@@ -17,8 +17,16 @@
 package com.ioevent.starter.listener;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.consumer.Consumer;
@@ -28,7 +36,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 
 import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.IOFlow;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+import com.ioevent.starter.domain.IOEventFetchMode;
 import com.ioevent.starter.handler.RecordsHandler;
+import com.ioevent.starter.service.IOEventStepControlService;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,12 +52,20 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ListenerCreator {
 
+	private static final long CLOSE_TIMEOUT_MS = 5000;
+
 	@Autowired
 	private RecordsHandler recordsHandler;
 
 	@Autowired
 	private List<Listener> listeners;
 
+	@Autowired
+	private IOEventProperties iOEventProperties;
+
+	@Autowired
+	private IOEventStepControlService stepControlService;
+
 	@Value("${spring.kafka.bootstrap-servers}")
 	private String kafkaBootstrapServer;
 	@Value("${spring.kafka.sasl.jaas.username:}")
@@ -70,11 +91,87 @@ public class ListenerCreator {
 
 	public Listener createListener(Object bean, Method method, IOEvent ioEvent, String topicName, String groupId,
 			Thread t1) throws Throwable {
+		return createListener(new BeanMethodPair(bean, method, ioEvent), topicName, groupId, t1);
+	}
+
+	/**
+	 * create listener on a single thread for the step and the topic given
+	 * 
+	 * @param beanMethodPair for the step bean method pair,
+	 */
+	public Listener createListener(BeanMethodPair beanMethodPair, String topicName, String groupId, Thread t1)
+			throws Throwable {
+		return createListener(Collections.singletonList(beanMethodPair), topicName, groupId, null);
+	}
+
+	/**
+	 * create listener on the current thread for the steps waiting for events of
+	 * the topic given, the fetch settings are taken from the first step,
+	 * 
+	 * @param beanMethodPairs for the steps bean method pairs,
+	 * @param topicName       for the topic name,
+	 * @param groupId         for the consumer group id,
+	 * @param onJoined        for the callback run once the listener joined the
+	 *                        group,
+	 */
+	public Listener createListener(List<BeanMethodPair> beanMethodPairs, String topicName, String groupId,
+			Runnable onJoined) throws Throwable {
+		BeanMethodPair beanMethodPair = beanMethodPairs.get(0);
+		IOEventFetchMode fetchMode = getFetchMode(beanMethodPair);
+		IOFlow ioFlow = beanMethodPair.getBean().getClass().getAnnotation(IOFlow.class);
+		int maxPollRecords = (ioFlow != null && ioFlow.maxPollRecords() > 0) ? ioFlow.maxPollRecords()
+				: valueOrDefault(iOEventProperties.getMax_poll_records(), fetchMode.getMaxPollRecords());
+		Properties props = consumerProperties(topicName, groupId, fetchMode, maxPollRecords);
+
+		Consumer<String, String> consumer = new KafkaConsumer<>(props);
+		Listener consumerApplication = new Listener(consumer, recordsHandler, beanMethodPair, topicName);
+		consumerApplication.setBeanMethodPairs(new ArrayList<>(beanMethodPairs));
+		consumerApplication.setOnJoined(onJoined);
+		configureListener(consumerApplication, fetchMode);
+		log.info("listener lunched for topic " + topicName + " and " + beanMethodPairs.size() + " methods");
+		consumerApplication.runConsume(props);
+		return consumerApplication;
+	}
+
+	/**
+	 * create a listener of the consumer pool subscribed to all the topics given,
+	 * the records are dispatched with the topic aware routing table of the pool
+	 * 
+	 * @param topicNames   for the topics consumed by the pool,
+	 * @param routingTable for the routing table of the pool,
+	 * @param groupId      for the consumer group id,
+	 * @param onJoined     for the callback run once the listener joined the group,
+	 */
+	public Listener createPoolListener(Collection<String> topicNames, IOEventRoutingTable routingTable,
+			String groupId, Runnable onJoined) throws Throwable {
+		IOEventFetchMode fetchMode = (iOEventProperties.getFetch_mode() != null) ? iOEventProperties.getFetch_mode()
+				: IOEventFetchMode.LATENCY;
+		String topics = String.join(",", topicNames);
+		Properties props = consumerProperties(topics, groupId, fetchMode,
+				valueOrDefault(iOEventProperties.getMax_poll_records(), fetchMode.getMaxPollRecords()));
+
+		Consumer<String, String> consumer = new KafkaConsumer<>(props);
+		Listener consumerApplication = new Listener(consumer, recordsHandler, routingTable, topics);
+		consumerApplication.setOnJoined(onJoined);
+		configureListener(consumerApplication, fetchMode);
+		log.info("pool listener lunched for " + topics);
+		consumerApplication.runConsume(props);
+		return consumerApplication;
+	}
+
+	private Properties consumerProperties(String topicName, String groupId, IOEventFetchMode fetchMode,
+			int maxPollRecords) {
 		Properties props = new Properties();
 		props.setProperty("bootstrap.servers", kafkaBootstrapServer);
 		props.setProperty("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
 		props.setProperty("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
 		props.setProperty("group.id", groupId);
+		props.setProperty("enable.auto.commit", "false");
+		props.setProperty("max.poll.records", String.valueOf(maxPollRecords));
+		props.setProperty("fetch.min.bytes",
+				String.valueOf(valueOrDefault(iOEventProperties.getFetch_min_bytes(), fetchMode.getFetchMinBytes())));
+		props.setProperty("fetch.max.wait.ms", String
+				.valueOf(valueOrDefault(iOEventProperties.getFetch_max_wait_ms(), fetchMode.getFetchMaxWaitMs())));
 		props.setProperty("topicName", topicName);
 		if (!StringUtils.isBlank(saslJaasUsername)) {
 			String saslJaasConfig = String.format(
@@ -84,17 +181,71 @@ public class ListenerCreator {
 			props.put("sasl.mechanism", plain);
 			props.put("sasl.jaas.config", saslJaasConfig);
 		}
+		return props;
+	}
 
-		Consumer<String, String> consumer = new KafkaConsumer<>(props);
-		Listener consumerApplication = new Listener(consumer, recordsHandler, bean, method, ioEvent, topicName);
-		listeners.add(consumerApplication);
+	/**
+	 * configure a new listener from the ioevent properties, the listener comes up
+	 * with its paused topics paused,
+	 * 
+	 * @param listener  for the new listener,
+	 * @param fetchMode for the fetch mode of the listener,
+	 */
+	void configureListener(Listener listener, IOEventFetchMode fetchMode) {
+		listener.setInFlightWindow(new IOEventInFlightWindow(iOEventProperties.getIn_flight_high_watermark(),
+				iOEventProperties.getIn_flight_low_watermark()));
+		listener.setCommitIntervalMs(iOEventProperties.getOffset_commit_interval_ms());
+		listener.setCommitCount(iOEventProperties.getOffset_commit_count());
+		listener.setDrainTimeoutMs(iOEventProperties.getDrain_timeout_ms());
+		listener.setPollStrategy(new IOEventPollStrategy(fetchMode.getMinPollTimeoutMs(), fetchMode.getMaxPollTimeoutMs()));
+		if (stepControlService != null) {
+			listener.pauseTopics(Arrays.stream(listener.getTopic().split(","))
+					.filter(stepControlService::isTopicPaused).collect(Collectors.toList()));
+		}
+		synchronized (listeners) {
+			listeners.add(listener);
+		}
+	}
 
-		synchronized (method) {
+	/**
+	 * stop all the listeners and wait for them to drain their in flight records,
+	 * commit their offsets and close their consumers, called before the records
+	 * handler and its executors are shut down
+	 **/
+	@PreDestroy
+	public void shutdownListeners() throws InterruptedException {
+		List<Listener> runningListeners;
+		synchronized (listeners) {
+			runningListeners = new ArrayList<>(listeners);
+		}
+		runningListeners.forEach(Listener::shutdown);
+		long deadline = System.currentTimeMillis() + iOEventProperties.getDrain_timeout_ms() + CLOSE_TIMEOUT_MS;
+		for (Listener listener : runningListeners) {
+			long remaining = Math.max(0, deadline - System.currentTimeMillis());
+			if (!listener.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+				log.warn("listener for topic " + listener.getTopic() + " not terminated, in flight records : "
+						+ listener.getQueueDepth());
+			}
+		}
+	}
 
-			method.notify();
+	/**
+	 * method returns the fetch mode of the listener, the mode of the @IOFlow of
+	 * the step if specified else the mode of the ioevent properties,
+	 * 
+	 * @param beanMethodPair for the step bean method pair,
+	 * @return IOEventFetchMode,
+	 */
+	public IOEventFetchMode getFetchMode(BeanMethodPair beanMethodPair) {
+		IOFlow ioFlow = beanMethodPair.getBean().getClass().getAnnotation(IOFlow.class);
+		if (ioFlow != null && ioFlow.fetchMode() != IOEventFetchMode.DEFAULT) {
+			return ioFlow.fetchMode();
 		}
-		log.info("listener lunched for " + method);
-		consumerApplication.runConsume(props);
-		return consumerApplication;
+		IOEventFetchMode fetchMode = iOEventProperties.getFetch_mode();
+		return (fetchMode != null) ? fetchMode : IOEventFetchMode.LATENCY;
+	}
+
+	private static int valueOrDefault(Integer value, int defaultValue) {
+		return (value != null) ? value : defaultValue;
 	}
 }
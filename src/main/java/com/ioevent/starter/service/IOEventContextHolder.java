@@ -24,12 +24,17 @@ package com.ioevent.starter.service;
 
 
 
+import java.util.List;
+
+import com.ioevent.starter.handler.IOEventBatchItem;
 import com.ioevent.starter.handler.IOEventRecordInfo;
 
 public class IOEventContextHolder {
 
 	private static ThreadLocal<IOEventRecordInfo> eventContextHolder = new ThreadLocal<>();
 
+	private static ThreadLocal<List<IOEventBatchItem>> batchContextHolder = new ThreadLocal<>();
+
 	public static void setContext(IOEventRecordInfo ioeventRecordInfo) {
 		eventContextHolder.set(ioeventRecordInfo);
 	}
@@ -42,4 +47,22 @@ public class IOEventContextHolder {
 		eventContextHolder.remove();
 	}
 
+	/**
+	 * set the events of the batch being processed by an @IOBatch method, the
+	 * aspects send the output events of each event of the batch
+	 * 
+	 * @param batch for the events of the batch,
+	 */
+	public static void setBatchContext(List<IOEventBatchItem> batch) {
+		batchContextHolder.set(batch);
+	}
+
+	public static List<IOEventBatchItem> getBatchContext() {
+		return batchContextHolder.get();
+	}
+
+	public static void unloadBatch() {
+		batchContextHolder.remove();
+	}
+
 }
@@ -21,6 +21,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -44,8 +45,10 @@ import com.ioevent.starter.annotations.IOPayload;
 import com.ioevent.starter.annotations.IOResponse;
 import com.ioevent.starter.annotations.InputEvent;
 import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.kafka.IOEventGatewayTopics;
 import com.ioevent.starter.configuration.properties.IOEventProperties;
-import com.ioevent.starter.domain.IOEventHeaders;
+import com.ioevent.starter.domain.IOEventGatewayKey;
+import com.ioevent.starter.domain.IOEventParallelAggregate;
 import com.ioevent.starter.domain.IOEventParallelEventInformation;
 import com.ioevent.starter.domain.IOEventType;
 
@@ -61,16 +64,21 @@ public class IOEventService {
 	@Autowired
 	private KafkaTemplate<String, Object> kafkaTemplate;
 
+	@Autowired
+	private IOEventGatewayTopics gatewayTopics;
+
 	/**
 	 * This is a kafka producer which send parallel events info to
-	 * ioevent-parallel-gateway-events topic
+	 * gateway events topic of the application
 	 * 
 	 * @param parallelEventInfo for the parallel event information,
 	 */
 	public void sendParallelEventInfo(IOEventParallelEventInformation parallelEventInfo) {
 		Message<IOEventParallelEventInformation> message = MessageBuilder.withPayload(parallelEventInfo)
-				.setHeader(KafkaHeaders.TOPIC, "ioevent-parallel-gateway-events").setHeader(KafkaHeaders.MESSAGE_KEY,
-						parallelEventInfo.getHeaders().get(IOEventHeaders.CORRELATION_ID.toString()))
+				.setHeader(KafkaHeaders.TOPIC, gatewayTopics.getEventsTopic())
+				.setHeader(KafkaHeaders.MESSAGE_KEY, IOEventGatewayKey.of(parallelEventInfo).toString())
+				.setHeader(IOEventGatewayTopics.APP_NAME_HEADER,
+						parallelEventInfo.getHeaders().get(IOEventGatewayTopics.APP_NAME_HEADER))
 				.build();
 
 		kafkaTemplate.send(message);
@@ -83,6 +91,18 @@ public class IOEventService {
 	 * @return list of Inputs names,
 	 */
 	public List<String> getInputNames(IOEvent ioEvent) {
+		return inputNamesOf(ioEvent);
+	}
+
+	/**
+	 * method returns all Inputs names of @IOEvent definition, static variant used
+	 * to precompute the listeners routing table where no service instance is
+	 * available,
+	 * 
+	 * @param ioEvent for the IOEvent annotation,
+	 * @return list of Inputs names,
+	 */
+	public static List<String> inputNamesOf(IOEvent ioEvent) {
 		List<String> result = new ArrayList<>();
 
 		for (InputEvent inputEvent : ioEvent.input()) {
@@ -328,8 +348,7 @@ public class IOEventService {
 	 * @return boolean ,
 	 */
 	public boolean sameList(List<String> firstList, List<String> secondList) {
-		return (firstList.size() == secondList.size() && firstList.containsAll(secondList)
-				&& secondList.containsAll(firstList));
+		return (firstList.size() == secondList.size() && new HashSet<>(firstList).equals(new HashSet<>(secondList)));
 	}
 
 	/**
@@ -672,6 +691,10 @@ public class IOEventService {
 						"IOEvent Method with Parallel Gateway can not be declared with @ExceptionEvent");
 			}
 		}
+		if (ioEvent.gatewayInput().parallel() && inputNamesOf(ioEvent).size() > IOEventParallelAggregate.MAX_INPUTS) {
+			throw new IllegalArgumentException("IOEvent Method with Parallel Gateway can not join more than "
+					+ IOEventParallelAggregate.MAX_INPUTS + " inputs");
+		}
 	}
 
 	public String getMethodReturnType(Method method) {
@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+import com.ioevent.starter.domain.IOEventBpmnPart;
+import com.ioevent.starter.handler.IOEventStepRegistry;
+import com.ioevent.starter.handler.IOEventThrottle;
+import com.ioevent.starter.listener.Listener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class IOEventStepControlService where we define the runtime controls of the
+ * steps : pause and resume the consumption of a topic or of the topics of a step,
+ * and throttle a step. Pausing a step pauses its input topics on the listeners
+ * consuming them, the other topics of these listeners, such as the topics of a
+ * consumer pool listener, are still consumed, and the steps sharing the paused
+ * topics are paused too. The paused topics are kept so that the listeners
+ * started later on these topics come up paused. The IOEvent BPMN parts are updated so the paused and throttled steps
+ * are visible in the BPMN model.
+ **/
+@Slf4j
+public class IOEventStepControlService {
+
+	@Autowired
+	private IOEventStepRegistry stepRegistry;
+
+	@Autowired
+	private List<Listener> listeners;
+
+	@Autowired
+	private List<IOEventBpmnPart> iobpmnlist;
+
+	@Autowired
+	private IOEventProperties iOEventProperties;
+
+	private final Set<String> pausedTopics = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * method returns the steps with the @IOEvent key or the step ID given,
+	 * 
+	 * @param step for the @IOEvent key or the step ID,
+	 * @return list of BeanMethodPair,
+	 */
+	public List<BeanMethodPair> findSteps(String step) {
+		return stepRegistry.getSteps().stream()
+				.filter(pair -> step.equals(pair.getIoEvent().key()) || step.equals(pair.getStepId()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * pause the input topics of the step on the listeners consuming them,
+	 * 
+	 * @param step for the @IOEvent key or the step ID,
+	 * @return list of the paused topics,
+	 */
+	public List<String> pauseStep(String step) {
+		return setPaused(stepListeners(findSteps(step)), true);
+	}
+
+	/**
+	 * resume the input topics of the step on the listeners consuming them,
+	 * 
+	 * @param step for the @IOEvent key or the step ID,
+	 * @return list of the resumed topics,
+	 */
+	public List<String> resumeStep(String step) {
+		return setPaused(stepListeners(findSteps(step)), false);
+	}
+
+	/**
+	 * pause the topic, with or without the ioevent prefix, on the listeners
+	 * consuming it,
+	 * 
+	 * @param topic for the topic name,
+	 * @return list of the paused topics,
+	 */
+	public List<String> pauseTopic(String topic) {
+		return setPaused(topicListeners(topic), true);
+	}
+
+	/**
+	 * resume the topic, with or without the ioevent prefix, on the listeners
+	 * consuming it,
+	 * 
+	 * @param topic for the topic name,
+	 * @return list of the resumed topics,
+	 */
+	public List<String> resumeTopic(String topic) {
+		return setPaused(topicListeners(topic), false);
+	}
+
+	/**
+	 * throttle the step to the rate given, the throttle is removed when the rate
+	 * is not positive,
+	 * 
+	 * @param step          for the @IOEvent key or the step ID,
+	 * @param ratePerSecond for the maximum events per second,
+	 * @return list of the IDs of the throttled steps,
+	 */
+	public List<String> throttleStep(String step, double ratePerSecond) {
+		List<BeanMethodPair> pairs = findSteps(step);
+		for (BeanMethodPair pair : pairs) {
+			pair.setThrottle((ratePerSecond > 0) ? new IOEventThrottle(ratePerSecond) : null);
+			log.info("step " + pair.getStepId() + " throttle set to " + ratePerSecond + " events per second");
+		}
+		refreshBpmnParts();
+		return pairs.stream().map(BeanMethodPair::getStepId).collect(Collectors.toList());
+	}
+
+	private Map<Listener, List<String>> stepListeners(List<BeanMethodPair> pairs) {
+		Map<Listener, List<String>> stepTopics = new LinkedHashMap<>();
+		synchronized (listeners) {
+			for (Listener listener : listeners) {
+				if (listener.getBeanMethodPairs().stream().anyMatch(pairs::contains)) {
+					stepTopics.put(listener, listener.getTopicsOf(pairs));
+				}
+			}
+		}
+		return stepTopics;
+	}
+
+	private Map<Listener, List<String>> topicListeners(String topic) {
+		Map<Listener, List<String>> topics = new LinkedHashMap<>();
+		synchronized (listeners) {
+			for (Listener listener : listeners) {
+				Arrays.stream(listener.getTopic().split(","))
+						.filter(t -> t.equals(topic) || t.equals(iOEventProperties.getPrefix() + topic)).findFirst()
+						.ifPresent(t -> topics.put(listener, Collections.singletonList(t)));
+			}
+		}
+		return topics;
+	}
+
+	/**
+	 * method returns true if the consumption of the topic is paused,
+	 * 
+	 * @param topic for the topic name or the comma separated topics of a consumer
+	 *              pool listener,
+	 * @return true if one of the topics is paused,
+	 */
+	public boolean isTopicPaused(String topic) {
+		return Arrays.stream(topic.split(",")).anyMatch(pausedTopics::contains);
+	}
+
+	private List<String> setPaused(Map<Listener, List<String>> controlledTopics, boolean paused) {
+		Set<String> topics = new LinkedHashSet<>();
+		controlledTopics.forEach((listener, listenerTopics) -> {
+			if (paused) {
+				pausedTopics.addAll(listenerTopics);
+				listener.pauseTopics(listenerTopics);
+			} else {
+				pausedTopics.removeAll(listenerTopics);
+				listener.resumeTopics(listenerTopics);
+			}
+			topics.addAll(listenerTopics);
+		});
+		log.info("consumption of topics " + topics + (paused ? " paused" : " resumed"));
+		refreshBpmnParts();
+		return new ArrayList<>(topics);
+	}
+
+	/**
+	 * update the paused and throttle fields of the BPMN parts from the listeners
+	 * and the steps
+	 **/
+	void refreshBpmnParts() {
+		Set<String> pausedSteps = new LinkedHashSet<>();
+		synchronized (listeners) {
+			for (Listener listener : listeners) {
+				for (BeanMethodPair pair : listener.getBeanMethodPairs()) {
+					if (listener.getTopicsOf(Collections.singletonList(pair)).stream()
+							.anyMatch(listener.getPausedTopics()::contains)) {
+						pausedSteps.add(pair.getStepId());
+					}
+				}
+			}
+		}
+		for (BeanMethodPair pair : stepRegistry.getSteps()) {
+			IOEventBpmnPart part = iobpmnlist.stream().filter(p -> Objects.equals(p.getId(), pair.getStepId()))
+					.findFirst().orElse(null);
+			if (part != null) {
+				part.setPaused(pausedSteps.contains(pair.getStepId()));
+				part.setThrottle((pair.getThrottle() != null) ? pair.getThrottle().getRatePerSecond() : 0);
+			}
+		}
+	}
+}
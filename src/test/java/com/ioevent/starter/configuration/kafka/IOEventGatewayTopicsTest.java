@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.configuration.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+class IOEventGatewayTopicsTest {
+
+	@Test
+	void topicsNamespacedByAppTest() {
+		IOEventGatewayTopics gatewayTopics = new IOEventGatewayTopics("test-", "orders");
+
+		assertEquals("test-ioevent-parallel-gateway-events-orders", gatewayTopics.getEventsTopic());
+		assertEquals("test-ioevent-parallel-gateway-aggregation-orders", gatewayTopics.getAggregationTopic());
+	}
+
+	@Test
+	void sharedTopicsWithoutAppNameTest() {
+		IOEventGatewayTopics gatewayTopics = new IOEventGatewayTopics("", null);
+
+		assertEquals("ioevent-parallel-gateway-events", gatewayTopics.getEventsTopic());
+		assertEquals("ioevent-parallel-gateway-aggregation", gatewayTopics.getAggregationTopic());
+		assertTrue(gatewayTopics.isOwnEvent(new RecordHeaders().add(IOEventGatewayTopics.APP_NAME_HEADER,
+				"orders".getBytes())));
+	}
+
+	@Test
+	void isOwnEventTest() {
+		IOEventGatewayTopics gatewayTopics = new IOEventGatewayTopics("", "orders");
+
+		assertTrue(gatewayTopics.isOwnEvent(new RecordHeaders().add(IOEventGatewayTopics.APP_NAME_HEADER,
+				"orders".getBytes())));
+		assertFalse(gatewayTopics.isOwnEvent(new RecordHeaders().add(IOEventGatewayTopics.APP_NAME_HEADER,
+				"billing".getBytes())));
+		assertTrue(gatewayTopics.isOwnEvent(new RecordHeaders()));
+	}
+}
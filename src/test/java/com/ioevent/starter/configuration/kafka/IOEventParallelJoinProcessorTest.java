@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.configuration.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.TaskId;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.ioevent.starter.domain.IOEventHeaders;
+import com.ioevent.starter.domain.IOEventParallelAggregate;
+import com.ioevent.starter.domain.IOEventParallelEventInformation;
+
+class IOEventParallelJoinProcessorTest {
+
+	Map<String, ValueAndTimestamp<IOEventParallelAggregate>> entries = new LinkedHashMap<>();
+	ProcessorContext context = mock(ProcessorContext.class);
+	IOEventParallelJoinStats joinStats = new IOEventParallelJoinStats();
+	IOEventParallelJoinProcessor processor = new IOEventParallelJoinProcessor("store", aggregate -> 1000L, 100L,
+			joinStats);
+
+	@SuppressWarnings("unchecked")
+	@BeforeEach
+	public void init() {
+		TimestampedKeyValueStore<String, IOEventParallelAggregate> store = mock(TimestampedKeyValueStore.class);
+		when(store.get(anyString())).thenAnswer(invocation -> entries.get(invocation.getArgument(0)));
+		doAnswer(invocation -> entries.put(invocation.getArgument(0), invocation.getArgument(1))).when(store)
+				.put(anyString(), any());
+		doAnswer(invocation -> entries.remove(invocation.getArgument(0))).when(store).delete(anyString());
+		when(store.all()).thenAnswer(invocation -> iterator(new ArrayList<>(entries.entrySet()).iterator()));
+		when(context.getStateStore("store")).thenReturn(store);
+		when(context.taskId()).thenReturn(new TaskId(0, 1));
+		processor.init(context);
+	}
+
+	private IOEventParallelAggregate branch(String input) {
+		Map<String, Object> payloadMap = new HashMap<>();
+		payloadMap.put(input, "payload " + input);
+		Map<String, Object> headers = new HashMap<>();
+		headers.put(IOEventHeaders.CORRELATION_ID.toString(), "id");
+		return IOEventParallelAggregate.of(new IOEventParallelEventInformation("payload " + input,
+				new ArrayList<>(Arrays.asList(input)), payloadMap, "topic", "method", "className",
+				Arrays.asList("A", "B"), headers));
+	}
+
+	private static KeyValueIterator<String, ValueAndTimestamp<IOEventParallelAggregate>> iterator(
+			Iterator<Map.Entry<String, ValueAndTimestamp<IOEventParallelAggregate>>> entries) {
+		return new KeyValueIterator<String, ValueAndTimestamp<IOEventParallelAggregate>>() {
+			@Override
+			public boolean hasNext() {
+				return entries.hasNext();
+			}
+
+			@Override
+			public KeyValue<String, ValueAndTimestamp<IOEventParallelAggregate>> next() {
+				Map.Entry<String, ValueAndTimestamp<IOEventParallelAggregate>> entry = entries.next();
+				return KeyValue.pair(entry.getKey(), entry.getValue());
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public String peekNextKey() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Test
+	void transformForwardsCompletedJoinOnlyTest() {
+		KeyValue<String, IOEventParallelEventInformation> first = processor.transform("id|gateway", branch("A"));
+		long firstArrivalTime = entries.get("id|gateway").timestamp();
+		KeyValue<String, IOEventParallelEventInformation> second = processor.transform("id|gateway", branch("B"));
+
+		assertNull(first);
+		assertEquals(Arrays.asList("A", "B"), second.value.getInputsArrived());
+		assertEquals(firstArrivalTime, entries.get("id|gateway").timestamp());
+		assertFalse(second.value.isTimeout());
+	}
+
+	@Test
+	void branchConsumedAgainAfterCompletionIgnoredTest() {
+		processor.transform("id|gateway", branch("A"));
+		processor.transform("id|gateway", branch("B"));
+
+		assertNull(processor.transform("id|gateway", branch("A")));
+		assertTrue(entries.get("id|gateway").value().isComplete());
+	}
+
+	@Test
+	void completedJoinStoredAsCompletionMarkerTest() {
+		processor.transform("id|gateway", branch("A"));
+		IOEventParallelAggregate pending = entries.get("id|gateway").value();
+		processor.transform("id|gateway", branch("B"));
+		IOEventParallelAggregate marker = entries.get("id|gateway").value();
+		IOEventParallelAggregate metadataOnly = branch("A").toCompletionMarker();
+
+		assertTrue(marker.isComplete());
+		assertTrue(marker.getInputsArrived().isEmpty());
+		assertEquals(metadataOnly.toBytes().length, marker.toBytes().length);
+		assertTrue(marker.toBytes().length < pending.toBytes().length);
+		assertEquals("className", marker.getClassName());
+	}
+
+	@Test
+	void expireForwardsTimeoutEventTest() {
+		entries.put("old|gateway", ValueAndTimestamp.make(branch("A"), 0L));
+		entries.put("completed|gateway", ValueAndTimestamp.make(branch("A").merge(branch("B")), 0L));
+		entries.put("young|gateway", ValueAndTimestamp.make(branch("B"), 4500L));
+
+		processor.expire(5000L);
+
+		ArgumentCaptor<IOEventParallelEventInformation> timeoutEvent = ArgumentCaptor
+				.forClass(IOEventParallelEventInformation.class);
+		verify(context).forward(eq("old|gateway"), timeoutEvent.capture());
+		verify(context, never()).forward(eq("completed|gateway"), any());
+		assertTrue(timeoutEvent.getValue().isTimeout());
+		assertEquals(Arrays.asList("A"), timeoutEvent.getValue().getInputsArrived());
+		assertEquals(Arrays.asList("young|gateway"), new ArrayList<>(entries.keySet()));
+		assertEquals(1, joinStats.getPendingJoins());
+		assertEquals(500, joinStats.getOldestPendingAgeMs());
+		assertEquals(1, joinStats.getExpiredJoins());
+	}
+
+	@Test
+	void closeRemovesTaskStatsTest() {
+		entries.put("young|gateway", ValueAndTimestamp.make(branch("B"), 4500L));
+		processor.expire(5000L);
+		assertEquals(1, joinStats.getPendingJoins());
+
+		processor.close();
+
+		assertEquals(0, joinStats.getPendingJoins());
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ioevent.starter.configuration.IOEventConfiguration;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.service.IOEventStepControlService;
+
+class IOEventControlControllerTest {
+
+	@InjectMocks
+	IOEventControlController controlController = new IOEventControlController();
+	@Mock
+	IOEventStepControlService stepControlService;
+
+	@BeforeEach
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+	}
+
+	@Test
+	void controlEndpointsOptInWithoutCrossOriginTest() throws NoSuchMethodException, SecurityException {
+		assertNull(IOEventControlController.class.getAnnotation(CrossOrigin.class));
+		ConditionalOnProperty condition = IOEventConfiguration.class.getMethod("ioEventControlController")
+				.getAnnotation(ConditionalOnProperty.class);
+		assertEquals("control_endpoints_enabled", condition.name()[0]);
+		assertEquals("true", condition.havingValue());
+	}
+
+	@Test
+	void pauseStepTest() {
+		when(stepControlService.findSteps("step")).thenReturn(Arrays.asList(new BeanMethodPair()));
+		when(stepControlService.pauseStep("step")).thenReturn(Arrays.asList("topic"));
+		when(stepControlService.findSteps("unknown")).thenReturn(Collections.emptyList());
+
+		assertEquals(Arrays.asList("topic"), controlController.pauseStep("step"));
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> controlController.pauseStep("unknown"));
+		assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.ioevent.starter.configuration.kafka.IOEventParallelAggregateSerde;
+
+class IOEventParallelAggregateTest {
+
+	private IOEventParallelEventInformation branch(String input, String payload, String headerValue) {
+		Map<String, Object> payloadMap = new HashMap<>();
+		payloadMap.put(input, payload);
+		Map<String, Object> headers = new HashMap<>();
+		headers.put(IOEventHeaders.CORRELATION_ID.toString(), "correlation");
+		headers.put("header", headerValue);
+		List<String> inputsArrived = new ArrayList<>(Arrays.asList(input));
+		IOEventParallelEventInformation info = new IOEventParallelEventInformation(payload, inputsArrived, payloadMap,
+				"topic", "method", "className", Arrays.asList("A", "B", "C"), headers);
+		info.setStepId("gateway");
+		return info;
+	}
+
+	@Test
+	void mergeAppendsNewBranchesTest() {
+		IOEventParallelAggregate aggregate = IOEventParallelAggregate.empty()
+				.merge(IOEventParallelAggregate.of(branch("A", "{\"a\":1}", "first")));
+		aggregate = aggregate.merge(IOEventParallelAggregate.of(branch("B", "{\"b\":2}", "second")));
+
+		assertEquals(Arrays.asList("A", "B"), aggregate.getInputsArrived());
+		IOEventParallelEventInformation info = aggregate.toParallelEventInformation();
+		assertEquals("gateway", info.getStepId());
+		assertEquals("className", info.getClassName());
+		assertEquals("method", info.getMethod());
+		assertEquals("topic", info.getListenerTopic());
+		assertEquals(Arrays.asList("A", "B", "C"), info.getInputRequired());
+		assertEquals("{\"a\":1}", info.getValue());
+		assertEquals("{\"b\":2}", info.getPayloadMap().get("B"));
+		assertEquals("second", info.getHeaders().get("header"));
+		assertEquals("correlation", info.getHeaders().get(IOEventHeaders.CORRELATION_ID.toString()));
+	}
+
+	@Test
+	void metadataAndCompletionTest() {
+		IOEventParallelAggregate aggregate = IOEventParallelAggregate.of(branch("A", "a", "first"))
+				.merge(IOEventParallelAggregate.of(branch("B", "b", "second")));
+
+		assertEquals("gateway", aggregate.getStepId());
+		assertEquals("className", aggregate.getClassName());
+		assertEquals("method", aggregate.getMethod());
+		assertEquals(Arrays.asList("A", "B", "C"), aggregate.getInputRequired());
+		assertFalse(aggregate.isComplete());
+		assertTrue(aggregate.merge(IOEventParallelAggregate.of(branch("C", "c", "third"))).isComplete());
+		assertFalse(IOEventParallelAggregate.empty().isComplete());
+	}
+
+	@Test
+	void arrivedMaskTest() {
+		IOEventParallelAggregate aggregate = IOEventParallelAggregate.of(branch("C", "c", "first"));
+		assertEquals(0b100L, aggregate.getArrivedMask());
+
+		aggregate = aggregate.merge(IOEventParallelAggregate.of(branch("A", "a", "second")));
+		assertEquals(0b101L, aggregate.getArrivedMask());
+		assertEquals(Arrays.asList("C", "A"), aggregate.getInputsArrived());
+		assertEquals(0L, IOEventParallelAggregate.of(branch("unknown", "u", "third")).getArrivedMask());
+	}
+
+	@Test
+	void tooManyInputsRejectedTest() {
+		List<String> inputRequired = new ArrayList<>();
+		for (int i = 0; i <= IOEventParallelAggregate.MAX_INPUTS; i++) {
+			inputRequired.add("input " + i);
+		}
+		IOEventParallelEventInformation info = branch("A", "a", "first");
+		info.setInputRequired(inputRequired);
+
+		assertThrows(IllegalArgumentException.class, () -> IOEventParallelAggregate.of(info));
+	}
+
+	@Test
+	void mergeIgnoresArrivedBranchTest() {
+		IOEventParallelAggregate aggregate = IOEventParallelAggregate.of(branch("A", "payload", "first"));
+
+		assertSame(aggregate, aggregate.merge(IOEventParallelAggregate.of(branch("A", "other", "second"))));
+		assertTrue(IOEventParallelAggregate.empty().getInputsArrived().isEmpty());
+	}
+
+	@Test
+	void serdeRoundTripTest() {
+		IOEventParallelAggregateSerde serde = new IOEventParallelAggregateSerde();
+		IOEventParallelAggregate aggregate = IOEventParallelAggregate.of(branch("A", null, "first"))
+				.merge(IOEventParallelAggregate.of(branch("C", "payload", "second")));
+
+		IOEventParallelAggregate result = serde.deserializer().deserialize("topic",
+				serde.serializer().serialize("topic", aggregate));
+
+		assertEquals(aggregate, result);
+		assertEquals(Arrays.asList("A", "C"), result.getInputsArrived());
+		assertEquals(null, result.toParallelEventInformation().getPayloadMap().get("A"));
+	}
+
+	@Test
+	void gatewayKeyTest() {
+		IOEventParallelEventInformation info = branch("A", "payload", "first");
+
+		assertEquals(new IOEventGatewayKey("correlation", "gateway"), IOEventGatewayKey.of(info));
+		assertEquals("correlation|gateway", IOEventGatewayKey.of(info).toString());
+		info.setStepId(null);
+		assertEquals("correlation|className#method", IOEventGatewayKey.of(info).toString());
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ioevent.starter.annotations.IOHeaders;
+import com.ioevent.starter.annotations.IOPayload;
+import com.ioevent.starter.annotations.IOResponse;
+import com.ioevent.starter.domain.ParallelEventInfo;
+import com.ioevent.starter.listener.IOEventInFlightWindow;
+import com.ioevent.starter.listener.IOEventOffsetTracker;
+import com.ioevent.starter.service.IOEventContextHolder;
+
+class IOEventBatchAccumulatorTest {
+
+	ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+	@InjectMocks
+	RecordsHandler recordsHandler = new RecordsHandler();
+
+	@Spy
+	IOEventPayloadCodec payloadCodec = new IOEventJacksonPayloadCodec();
+
+	@BeforeEach
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+	}
+
+	public List<String> batchMethod(@IOPayload List<ParallelEventInfo> payloads,
+			@IOHeaders List<Map<String, Object>> headers) {
+		return null;
+	}
+
+	private IOEventBatchItem item(long offset, String value) {
+		IOEventRecordInfo recordInfo = new IOEventRecordInfo();
+		recordInfo.setHeaderList(Arrays.asList(new RecordHeader("header", ("value" + offset).getBytes())));
+		return new IOEventBatchItem(new ConsumerRecord<>("topic", 0, offset, "key", value), recordInfo,
+				new IOEventInFlightWindow(), new IOEventOffsetTracker());
+	}
+
+	@Test
+	void flushOnMaxSizeTest() {
+		List<List<IOEventBatchItem>> batches = new ArrayList<>();
+		IOEventBatchAccumulator accumulator = new IOEventBatchAccumulator(2, 60000, timer, batches::add);
+
+		accumulator.add(item(0, "a"));
+		assertTrue(batches.isEmpty());
+		accumulator.add(item(1, "b"));
+		accumulator.add(item(2, "c"));
+
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).size());
+		assertEquals(1, accumulator.size());
+	}
+
+	@Test
+	void flushOnMaxWaitTest() throws InterruptedException {
+		List<List<IOEventBatchItem>> batches = new CopyOnWriteArrayList<>();
+		IOEventBatchAccumulator accumulator = new IOEventBatchAccumulator(10, 20, timer, batches::add);
+
+		accumulator.add(item(0, "a"));
+		for (int i = 0; i < 100 && batches.isEmpty(); i++) {
+			Thread.sleep(10);
+		}
+
+		assertEquals(1, batches.size());
+		assertEquals(0, accumulator.size());
+	}
+
+	@Test
+	void prepareBatchParametersTest() throws NoSuchMethodException, SecurityException, JsonProcessingException {
+		Method method = this.getClass().getMethod("batchMethod", List.class, List.class);
+		List<IOEventBatchItem> batch = Arrays.asList(item(0, "{\"id\":\"first\"}"), item(1, "{\"id\":\"second\"}"));
+
+		Object[] params = recordsHandler.prepareBatchParameters(IOEventBindingPlan.of(method), batch);
+
+		List<?> payloads = (List<?>) params[0];
+		assertEquals("first", ((ParallelEventInfo) payloads.get(0)).getId());
+		assertEquals("second", ((ParallelEventInfo) payloads.get(1)).getId());
+		assertEquals("value1", ((List<Map<?, ?>>) params[1]).get(1).get("header"));
+		assertEquals(payloads.get(1), ((IOResponse<?>) IOEventBatchItem.resultOf(null, batch, 1)).getBody());
+		assertEquals("result", IOEventBatchItem.resultOf(Arrays.asList("other", "result"), batch, 1));
+		assertEquals(Collections.emptyList(), IOEventBatchItem.resultOf(Collections.emptyList(), batch, 1));
+	}
+
+	@Test
+	void forEachItemSetsContextOfEachEventTest() throws Exception {
+		List<IOEventBatchItem> batch = Arrays.asList(item(0, "a"), item(1, "b"));
+		List<Object> results = new ArrayList<>();
+		assertFalse(IOEventBatchItem.forEachItem("result", (item, result) -> results.add(result)));
+
+		IOEventContextHolder.setBatchContext(batch);
+		try {
+			assertTrue(IOEventBatchItem.forEachItem(Arrays.asList("first", "second"), (item, result) -> {
+				assertSame(item.getRecordInfo(), IOEventContextHolder.getContext());
+				assertNull(IOEventContextHolder.getBatchContext());
+				results.add(result);
+			}));
+
+			assertEquals(Arrays.asList("first", "second"), results);
+			assertSame(batch, IOEventContextHolder.getBatchContext());
+		} finally {
+			IOEventContextHolder.unloadBatch();
+			IOEventContextHolder.unload();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ioevent.starter.annotations.IOHeader;
+import com.ioevent.starter.annotations.IOHeaders;
+import com.ioevent.starter.annotations.IOPayload;
+import com.ioevent.starter.handler.IOEventBindingPlan.BindingType;
+
+class IOEventBindingPlanTest {
+
+	@InjectMocks
+	RecordsHandler recordsHandler = new RecordsHandler();
+
+	@Spy
+	IOEventPayloadCodec payloadCodec = new IOEventJacksonPayloadCodec();
+
+	@BeforeEach
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+	}
+
+	public String bindingMethod(@IOPayload Integer payload, @IOHeader("header") String header,
+			@IOHeader("missing") String missing, @IOHeaders Map<String, Object> headers) {
+		return payload + "-" + header + "-" + missing + "-" + headers.size();
+	}
+
+	public void failingMethod(String payload) {
+		throw new IllegalStateException(payload);
+	}
+
+	@Test
+	void compileBindingsTest() throws NoSuchMethodException, SecurityException {
+		Method method = this.getClass().getMethod("bindingMethod", Integer.class, String.class, String.class,
+				Map.class);
+		IOEventBindingPlan bindingPlan = IOEventBindingPlan.of(method);
+
+		assertEquals(BindingType.PAYLOAD, bindingPlan.getBindings()[0].getType());
+		assertEquals(BindingType.HEADER, bindingPlan.getBindings()[1].getType());
+		assertEquals("header", bindingPlan.getBindings()[1].getHeaderName());
+		assertEquals(BindingType.HEADERS, bindingPlan.getBindings()[3].getType());
+	}
+
+	@Test
+	void prepareParametersAndInvokeTest() throws NoSuchMethodException, SecurityException, JsonProcessingException,
+			IllegalAccessException, InvocationTargetException {
+		Method method = this.getClass().getMethod("bindingMethod", Integer.class, String.class, String.class,
+				Map.class);
+		IOEventBindingPlan bindingPlan = IOEventBindingPlan.of(method);
+
+		Object[] params = recordsHandler.prepareParameters(bindingPlan, "12",
+				Arrays.asList(new RecordHeader("header", "value".getBytes())));
+
+		assertEquals(12, params[0]);
+		assertEquals("value", params[1]);
+		assertNull(params[2]);
+		assertEquals("12-value-null-1", bindingPlan.invoke(this, params));
+	}
+
+	@Test
+	void invokeWrapMethodExceptionTest() throws NoSuchMethodException, SecurityException {
+		IOEventBindingPlan bindingPlan = IOEventBindingPlan.of(this.getClass().getMethod("failingMethod", String.class));
+
+		InvocationTargetException exception = assertThrows(InvocationTargetException.class,
+				() -> bindingPlan.invoke(this, new Object[] { "error" }));
+		assertEquals(IllegalStateException.class, exception.getCause().getClass());
+	}
+}
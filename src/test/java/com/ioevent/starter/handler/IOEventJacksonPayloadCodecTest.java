@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ioevent.starter.domain.ParallelEventInfo;
+
+class IOEventJacksonPayloadCodecTest {
+
+	IOEventJacksonPayloadCodec payloadCodec = new IOEventJacksonPayloadCodec();
+
+	@Test
+	void encodeDecodeTest() throws JsonProcessingException {
+		ParallelEventInfo parallelEventInfo = new ParallelEventInfo("id", Arrays.asList("first", "second"));
+
+		byte[] encoded = payloadCodec.encode(parallelEventInfo);
+		ParallelEventInfo decoded = (ParallelEventInfo) payloadCodec
+				.decode(new String(encoded, StandardCharsets.UTF_8), ParallelEventInfo.class);
+
+		assertEquals("id", decoded.getId());
+		assertEquals(Arrays.asList("first", "second"), decoded.getOutputs());
+	}
+
+	@Test
+	void serializerTest() {
+		assertEquals("\"payload\"",
+				new String(payloadCodec.serializer().serialize("topic", "payload"), StandardCharsets.UTF_8));
+		assertEquals(null, payloadCodec.serializer().serialize("topic", null));
+	}
+
+	@Test
+	void javaTimeAndUnknownPropertiesTest() throws JsonProcessingException {
+		Map<String, Object> payload = new HashMap<>();
+		payload.put("date", LocalDate.of(2022, 3, 14));
+		payload.put("note", Optional.of("note"));
+
+		assertEquals("{\"date\":[2022,3,14],\"note\":\"note\"}",
+				new String(payloadCodec.encode(new TreeMap<>(payload)), StandardCharsets.UTF_8));
+		ParallelEventInfo decoded = (ParallelEventInfo) payloadCodec
+				.decode("{\"id\":\"id\",\"outputs\":[],\"unknown\":1}", ParallelEventInfo.class);
+		assertEquals("id", decoded.getId());
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.ioevent.starter.domain.IOEventHeaders;
+import com.ioevent.starter.domain.IOEventParallelEventInformation;
+
+class IOEventLocalJoinTableTest {
+
+	private IOEventParallelEventInformation branch(String input) {
+		Map<String, Object> payloadMap = new HashMap<>();
+		payloadMap.put(input, "payload " + input);
+		Map<String, Object> headers = new HashMap<>();
+		headers.put(IOEventHeaders.CORRELATION_ID.toString(), "id");
+		return new IOEventParallelEventInformation("payload " + input, Collections.singletonList(input), payloadMap,
+				"topic", "parallelTask", "ParallelClass", Arrays.asList("input A", "input B"), headers);
+	}
+
+	@Test
+	void joinCompletedLocallyTest() {
+		List<IOEventParallelEventInformation> forwarded = new CopyOnWriteArrayList<>();
+		IOEventLocalJoinTable joinTable = new IOEventLocalJoinTable(10000, forwarded::add);
+		AtomicInteger resolved = new AtomicInteger();
+
+		assertNull(joinTable.offer("id|step", branch("input A"), resolved::incrementAndGet));
+		IOEventLocalJoinTable.LocalJoin localJoin = joinTable.offer("id|step", branch("input B"),
+				resolved::incrementAndGet);
+
+		assertNotNull(localJoin);
+		assertEquals(Arrays.asList("input A", "input B"), localJoin.getJoinedEvent().getInputsArrived());
+		assertEquals("payload input B", localJoin.getJoinedEvent().getPayloadMap().get("input B"));
+		assertEquals(0, resolved.get());
+		localJoin.resolve();
+		assertEquals(2, resolved.get());
+		assertEquals(0, joinTable.getPendingCount());
+		assertEquals(1, joinTable.getLocalJoins());
+		assertTrue(forwarded.isEmpty());
+		joinTable.shutdown();
+	}
+
+	@Test
+	void branchForwardedAfterHoldTimeTest() throws InterruptedException {
+		List<IOEventParallelEventInformation> forwarded = new CopyOnWriteArrayList<>();
+		IOEventLocalJoinTable joinTable = new IOEventLocalJoinTable(20, forwarded::add);
+		CountDownLatch resolved = new CountDownLatch(1);
+
+		assertNull(joinTable.offer("id|step", branch("input A"), resolved::countDown));
+
+		assertTrue(resolved.await(5, TimeUnit.SECONDS));
+		assertEquals(1, forwarded.size());
+		assertEquals(0, joinTable.getPendingCount());
+		assertEquals(1, joinTable.getForwardedBranches());
+		joinTable.shutdown();
+	}
+
+	@Test
+	void forwardAllTest() {
+		List<IOEventParallelEventInformation> forwarded = new CopyOnWriteArrayList<>();
+		IOEventLocalJoinTable joinTable = new IOEventLocalJoinTable(10000, forwarded::add);
+		AtomicInteger resolved = new AtomicInteger();
+		joinTable.offer("id|step", branch("input A"), resolved::incrementAndGet);
+		joinTable.offer("other|step", branch("input B"), resolved::incrementAndGet);
+
+		joinTable.forwardAll();
+
+		assertEquals(2, forwarded.size());
+		assertEquals(2, resolved.get());
+		assertEquals(0, joinTable.getPendingCount());
+		joinTable.shutdown();
+	}
+
+	@Test
+	void failedForwardKeepsBranchUnresolvedTest() {
+		IOEventLocalJoinTable joinTable = new IOEventLocalJoinTable(10000, branch -> {
+			throw new IllegalStateException("broker unavailable");
+		});
+		AtomicInteger resolved = new AtomicInteger();
+		joinTable.offer("id|step", branch("input A"), resolved::incrementAndGet);
+
+		joinTable.forwardAll();
+
+		assertEquals(0, resolved.get());
+		joinTable.shutdown();
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ioevent.starter.annotations.GatewayInputEvent;
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.IOPayload;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.domain.IOEventParallelAggregate;
+import com.ioevent.starter.domain.IOEventParallelEventInformation;
+
+class IOEventPayloadResolverTest {
+
+	/** method to test annotations **/
+	@IOEvent(key = "parallel task", gatewayInput = @GatewayInputEvent(parallel = true, input = {
+			@InputEvent(key = "input A"), @InputEvent(key = "input B") }), output = @OutputEvent(key = "output"))
+	public void parallelTask(@IOPayload(index = 1) String payloadB, @IOPayload(index = 0) String payloadA) {
+	}
+
+	@SuppressWarnings("unchecked")
+	ConsumerFactory<String, String> consumerFactory = Mockito.mock(ConsumerFactory.class);
+
+	private IOEventPayloadResolver resolver(MockConsumer<String, String> consumer, long fetchTimeoutMs) {
+		Mockito.when(consumerFactory.createConsumer(Mockito.isNull(), Mockito.isNull(),
+				Mockito.startsWith("-payload-resolver-"), Mockito.any(Properties.class))).thenReturn(consumer);
+		return new IOEventPayloadResolver(consumerFactory, fetchTimeoutMs, 2);
+	}
+
+	private IOEventParallelEventInformation branch(BeanMethodPair pair, String input, int partition, long offset,
+			String payload) {
+		ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<>("orders", partition, offset, "key",
+				payload);
+		return new IOEventParallelEventInformation(consumerRecord,
+				new IOEventRecordInfo("id", "process", input, Collections.emptyList(), 0L, null), pair,
+				pair.getInputNames(), "app");
+	}
+
+	@Test
+	void referenceParseTest() {
+		IOEventPayloadReference reference = new IOEventPayloadReference("my.topic-1", 3, 1200L);
+
+		assertEquals(reference, IOEventPayloadReference.parse(reference.toString()));
+		assertEquals("IOEventPayloadRef-input A", IOEventPayloadReference.headerName("input A"));
+		assertThrows(IllegalArgumentException.class, () -> IOEventPayloadReference.parse("12"));
+	}
+
+	@Test
+	void joinedReferencesResolvedWhenMethodInvokedTest() throws NoSuchMethodException, JsonProcessingException {
+		Method method = this.getClass().getMethod("parallelTask", String.class, String.class);
+		BeanMethodPair pair = new BeanMethodPair(this, method, method.getAnnotation(IOEvent.class));
+		IOEventParallelEventInformation branchA = branch(pair, "input A", 0, 42L, "payload A").withPayloadReference();
+		IOEventParallelEventInformation branchB = branch(pair, "input B", 1, 7L, "payload B").withPayloadReference();
+
+		assertNull(branchA.getValue());
+		assertNull(branchA.getPayloadMap().get("input A"));
+		assertEquals("orders:0:42", branchA.getHeaders().get("IOEventPayloadRef-input A"));
+
+		IOEventParallelEventInformation joined = IOEventParallelAggregate.of(branchA)
+				.merge(IOEventParallelAggregate.of(branchB)).toParallelEventInformation();
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>("orders", 1, 7L, "key", "payload B")));
+		consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>("orders", 0, 42L, "key", "payload A")));
+		RecordsHandler recordsHandler = new RecordsHandler();
+		ReflectionTestUtils.setField(recordsHandler, "payloadResolver", resolver(consumer, 1000L));
+
+		Object[] params = recordsHandler.prepareParallelParameters(pair.getBindingPlan(), joined);
+
+		assertEquals("payload B", params[0]);
+		assertEquals("payload A", params[1]);
+	}
+
+	@Test
+	void missingRecordTimeoutTest() {
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		consumer.updateBeginningOffsets(Collections.singletonMap(new TopicPartition("orders", 0), 0L));
+		IOEventPayloadResolver resolver = resolver(consumer, 200L);
+
+		assertThrows(IllegalStateException.class, () -> resolver.resolve(new IOEventPayloadReference("orders", 0, 5L)));
+		assertEquals(Arrays.asList(new TopicPartition("orders", 0)), Arrays.asList(consumer.assignment().toArray()));
+		resolver.close();
+		assertEquals(true, consumer.closed());
+	}
+
+	@Test
+	void joinReferencesResolvedInOnePassTest() {
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		consumer.schedulePollTask(() -> {
+			consumer.addRecord(new ConsumerRecord<>("orders", 0, 42L, "key", "payload A"));
+			consumer.addRecord(new ConsumerRecord<>("orders", 0, 43L, "key", "other payload"));
+			consumer.addRecord(new ConsumerRecord<>("orders", 0, 44L, "key", "payload C"));
+			consumer.addRecord(new ConsumerRecord<>("orders", 1, 7L, "key", "payload B"));
+		});
+		IOEventPayloadResolver resolver = resolver(consumer, 1000L);
+		IOEventPayloadReference referenceA = new IOEventPayloadReference("orders", 0, 42L);
+		IOEventPayloadReference referenceB = new IOEventPayloadReference("orders", 1, 7L);
+		IOEventPayloadReference referenceC = new IOEventPayloadReference("orders", 0, 44L);
+
+		Map<IOEventPayloadReference, String> payloads = resolver
+				.resolveAll(Arrays.asList(referenceA, referenceB, referenceC));
+
+		assertEquals("payload A", payloads.get(referenceA));
+		assertEquals("payload B", payloads.get(referenceB));
+		assertEquals("payload C", payloads.get(referenceC));
+		assertEquals(2, consumer.assignment().size());
+		assertTrue(consumer.paused().isEmpty());
+	}
+
+	@Test
+	void idleConsumerReusedTest() {
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>("orders", 0, 1L, "key", "first")));
+		consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>("orders", 1, 2L, "key", "second")));
+		IOEventPayloadResolver resolver = resolver(consumer, 1000L);
+
+		assertEquals("first", resolver.resolve(new IOEventPayloadReference("orders", 0, 1L)));
+		assertEquals("second", resolver.resolve(new IOEventPayloadReference("orders", 1, 2L)));
+
+		assertEquals(1, resolver.getConsumerCount());
+		Mockito.verify(consumerFactory, Mockito.times(1)).createConsumer(Mockito.isNull(), Mockito.isNull(),
+				Mockito.anyString(), Mockito.any(Properties.class));
+	}
+}
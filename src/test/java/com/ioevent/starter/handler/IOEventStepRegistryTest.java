@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanInitializationException;
+
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+
+class IOEventStepRegistryTest {
+
+	IOEventStepRegistry stepRegistry = new IOEventStepRegistry();
+
+	/** method to test annotations **/
+	@IOEvent(key = "simple task", input = @InputEvent(key = "input"), output = @OutputEvent(key = "output"))
+	public void simpleTask() {
+	}
+
+	/** method to test annotations **/
+	@IOEvent(key = "simple task", input = @InputEvent(key = "input"), output = @OutputEvent(key = "output"))
+	public void otherTask() {
+	}
+
+	/** class declaring the same step as the test class **/
+	public static class OtherFlow {
+
+		/** method to test annotations **/
+		@IOEvent(key = "simple task", input = @InputEvent(key = "input"), output = @OutputEvent(key = "output"))
+		public void simpleTask() {
+		}
+	}
+
+	private BeanMethodPair pair(Object bean, String methodName) throws NoSuchMethodException, SecurityException {
+		Method method = bean.getClass().getMethod(methodName);
+		BeanMethodPair pair = new BeanMethodPair(bean, method, method.getAnnotation(IOEvent.class));
+		pair.setStepId("simpletask-1-2");
+		return pair;
+	}
+
+	@Test
+	void sameStepIdInTwoClassesTest() throws NoSuchMethodException, SecurityException {
+		BeanMethodPair pair = pair(this, "simpleTask");
+		BeanMethodPair otherPair = pair(new OtherFlow(), "simpleTask");
+		stepRegistry.register(pair);
+		stepRegistry.register(otherPair);
+
+		assertSame(pair, stepRegistry.getStep("simpletask-1-2", getClass().getName(), "simpleTask"));
+		assertSame(otherPair, stepRegistry.getStep("simpletask-1-2", OtherFlow.class.getName(), "simpleTask"));
+	}
+
+	@Test
+	void stepIdSharedByTwoMethodsFailsTest() throws NoSuchMethodException, SecurityException {
+		stepRegistry.register(pair(this, "simpleTask"));
+		BeanMethodPair duplicate = pair(this, "otherTask");
+
+		assertThrows(BeanInitializationException.class, () -> stepRegistry.register(duplicate));
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class IOEventStripedExecutorTest {
+
+	@Test
+	void sameKeySameLaneTest() {
+		IOEventStripedExecutor stripedExecutor = new IOEventStripedExecutor("test", 4);
+		assertEquals(stripedExecutor.laneOf("correlation-id"), stripedExecutor.laneOf("correlation-id"));
+	}
+
+	@Test
+	void keepSubmissionOrderPerKeyTest() throws InterruptedException {
+		IOEventStripedExecutor stripedExecutor = new IOEventStripedExecutor("test", 4);
+		List<Integer> first = Collections.synchronizedList(new ArrayList<>());
+		List<Integer> second = Collections.synchronizedList(new ArrayList<>());
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			int value = i;
+			expected.add(value);
+			stripedExecutor.execute("first", () -> first.add(value));
+			stripedExecutor.execute("second", () -> second.add(value));
+		}
+		stripedExecutor.shutdown(10, TimeUnit.SECONDS);
+
+		assertEquals(expected, first);
+		assertEquals(expected, second);
+	}
+}
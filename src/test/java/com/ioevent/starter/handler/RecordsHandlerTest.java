@@ -26,13 +26,21 @@ package com.ioevent.starter.handler;
 
 import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.record.TimestampType;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,6 +50,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.kafka.support.SendResult;
@@ -55,6 +64,7 @@ import org.springframework.util.concurrent.SettableListenableFuture;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.google.gson.Gson;
+import com.ioevent.starter.configuration.kafka.IOEventGatewayTopics;
 import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
 import com.ioevent.starter.domain.IOEventHeaders;
 import com.ioevent.starter.domain.IOEventParallelEventInformation;
@@ -73,9 +83,16 @@ class RecordsHandlerTest {
 	@Mock
 	KafkaTemplate<String, Object> kafkaTemplate;
 
+	@Spy
+	IOEventPayloadCodec payloadCodec = new IOEventJacksonPayloadCodec();
+
+	@Mock
+	IOEventGatewayTopics gatewayTopics;
+
 	@BeforeEach
 	public void init() {
 		MockitoAnnotations.initMocks(this);
+		when(gatewayTopics.getEventsTopic()).thenReturn("ioevent-parallel-gateway-events");
 	}
 
 	Gson gson = new Gson();
@@ -121,6 +138,26 @@ class RecordsHandlerTest {
 
 	}
 
+	@Test
+	void getIOEventHeadersFilterHeaderListTest() {
+		ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<String, String>("topic", 1, 152, 11125,
+				TimestampType.LOG_APPEND_TIME, null, 0, 0, null, null, new RecordHeaders());
+		consumerRecord.headers().add(IOEventHeaders.OUTPUT_EVENT.toString(), "output name".getBytes());
+		consumerRecord.headers().add(IOEventHeaders.CORRELATION_ID.toString(), "id".getBytes());
+		consumerRecord.headers().add(IOEventHeaders.START_INSTANCE_TIME.toString(), "1000".getBytes());
+		consumerRecord.headers().add(IOEventHeaders.ERROR_TYPE.toString(), "error".getBytes());
+		consumerRecord.headers().add(IOEventHeaders.RESUME.toString(), "true".getBytes());
+		consumerRecord.headers().add("spring_json_header_types", "{}".getBytes());
+		consumerRecord.headers().add("another header", "value".getBytes());
+
+		IOEventRecordInfo ioeventRecordInfoCreated = recordsHandler.getIOEventHeaders(consumerRecord);
+
+		assertEquals(Long.valueOf(1000L), ioeventRecordInfoCreated.getInstanceStartTime());
+		assertEquals(Arrays.asList(IOEventHeaders.OUTPUT_EVENT.toString(), IOEventHeaders.CORRELATION_ID.toString(),
+				IOEventHeaders.START_INSTANCE_TIME.toString(), "another header"),
+				ioeventRecordInfoCreated.getHeaderList().stream().map(Header::key).collect(Collectors.toList()));
+	}
+
 	@Test
 	void sendParallelInfoTest() throws NoSuchMethodException, SecurityException {
 		Method method = this.getClass().getMethod("init", null);
@@ -142,8 +179,7 @@ class RecordsHandlerTest {
 
 		Message<IOEventParallelEventInformation> message = MessageBuilder.withPayload(parallelEventInfo)
 				.setHeader(KafkaHeaders.TOPIC, "ioevent-parallel-gateway-events")
-				.setHeader(KafkaHeaders.MESSAGE_KEY,
-						parallelEventInfo.getHeaders().get(IOEventHeaders.CORRELATION_ID.toString()).toString() + parallelEventInfo.getInputRequired())
+				.setHeader(KafkaHeaders.MESSAGE_KEY, "id|" + this.getClass().getName() + "#init")
 				.build();
 
 		assertEquals(message.getHeaders().get("kafka_messageKey"), messageResult.getHeaders().get("kafka_messageKey"));
@@ -169,5 +205,31 @@ class RecordsHandlerTest {
 
 	}
 
-
+	@Test
+	void throttledStepDoesNotHoldOtherStepsTest() throws InterruptedException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		BeanMethodPair throttledPair = new BeanMethodPair();
+		throttledPair.setThrottle(new IOEventThrottle(2));
+		BeanMethodPair otherPair = new BeanMethodPair();
+		AtomicInteger throttledInvocations = new AtomicInteger();
+		CountDownLatch throttledDone = new CountDownLatch(3);
+		CountDownLatch otherDone = new CountDownLatch(5);
+
+		for (int i = 0; i < 3; i++) {
+			recordsHandler.dispatch(throttledPair, 1, () -> {
+				throttledInvocations.incrementAndGet();
+				throttledDone.countDown();
+			}, executor, () -> {
+			});
+		}
+		for (int i = 0; i < 5; i++) {
+			recordsHandler.dispatch(otherPair, 1, otherDone::countDown, executor, () -> {
+			});
+		}
+
+		assertTrue(otherDone.await(300, TimeUnit.MILLISECONDS));
+		assertEquals(1, throttledInvocations.get());
+		assertTrue(throttledDone.await(3, TimeUnit.SECONDS));
+		executor.shutdown();
+	}
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+
+class IOEventInFlightWindowTest {
+
+	public void step() {
+	}
+
+	/** method to test annotations **/
+	@IOEvent(key = "first task", input = @InputEvent(key = "first"), output = @OutputEvent(key = "output"))
+	public void firstTask() {
+	}
+
+	/** method to test annotations **/
+	@IOEvent(key = "second task", input = @InputEvent(key = "second"), output = @OutputEvent(key = "output"))
+	public void secondTask() {
+	}
+
+	@Test
+	void invalidWatermarksTest() {
+		assertThrows(IllegalArgumentException.class, () -> new IOEventInFlightWindow(10, 10));
+		assertThrows(IllegalArgumentException.class, () -> new IOEventInFlightWindow(0, 0));
+	}
+
+	@Test
+	void pauseAndResumeOnWatermarksTest() throws NoSuchMethodException, SecurityException {
+		TopicPartition partition = new TopicPartition("topic", 0);
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		consumer.assign(Arrays.asList(partition));
+		Method method = this.getClass().getMethod("step");
+		Listener listener = new Listener(consumer, null, this, method, null, "topic");
+		IOEventInFlightWindow window = new IOEventInFlightWindow(3, 1);
+		listener.setInFlightWindow(window);
+
+		window.acquire();
+		window.acquire();
+		listener.applyBackpressure();
+		assertFalse(listener.isPaused());
+
+		window.acquire();
+		listener.applyBackpressure();
+		assertTrue(listener.isPaused());
+		assertTrue(consumer.paused().contains(partition));
+		assertEquals(3, listener.getQueueDepth());
+
+		window.release();
+		listener.applyBackpressure();
+		assertTrue(listener.isPaused());
+
+		window.release();
+		listener.applyBackpressure();
+		assertFalse(listener.isPaused());
+		assertTrue(consumer.paused().isEmpty());
+	}
+
+	@Test
+	void pausedTopicOnlyPausesItsPartitionsTest() throws NoSuchMethodException, SecurityException {
+		TopicPartition first = new TopicPartition("first-topic", 0);
+		TopicPartition second = new TopicPartition("second-topic", 0);
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		consumer.assign(Arrays.asList(first, second));
+		Method firstMethod = this.getClass().getMethod("firstTask");
+		Method secondMethod = this.getClass().getMethod("secondTask");
+		BeanMethodPair firstPair = new BeanMethodPair(this, firstMethod, firstMethod.getAnnotation(IOEvent.class));
+		BeanMethodPair secondPair = new BeanMethodPair(this, secondMethod, secondMethod.getAnnotation(IOEvent.class));
+		Map<String, List<BeanMethodPair>> pairsByTopic = new HashMap<>();
+		pairsByTopic.put("first-topic", Collections.singletonList(firstPair));
+		pairsByTopic.put("second-topic", Collections.singletonList(secondPair));
+		Listener listener = new Listener(consumer, null, IOEventRoutingTable.ofTopics(pairsByTopic),
+				"first-topic,second-topic");
+		IOEventInFlightWindow window = new IOEventInFlightWindow(1, 0);
+		listener.setInFlightWindow(window);
+
+		assertEquals(Arrays.asList("first-topic"), listener.getTopicsOf(Collections.singletonList(firstPair)));
+		listener.pauseTopics(listener.getTopicsOf(Collections.singletonList(firstPair)));
+		listener.applyBackpressure();
+		assertEquals(Collections.singleton(first), consumer.paused());
+
+		window.acquire();
+		listener.applyBackpressure();
+		assertTrue(consumer.paused().containsAll(Arrays.asList(first, second)));
+
+		window.release();
+		listener.applyBackpressure();
+		assertEquals(Collections.singleton(first), consumer.paused());
+
+		TopicPartition reassigned = new TopicPartition("first-topic", 1);
+		consumer.assign(Arrays.asList(first, reassigned, second));
+		listener.pauseAssigned(Arrays.asList(reassigned));
+		assertTrue(consumer.paused().contains(reassigned));
+		assertFalse(consumer.paused().contains(second));
+
+		listener.resumeTopics(Collections.singletonList("first-topic"));
+		listener.applyBackpressure();
+		assertTrue(consumer.paused().isEmpty());
+	}
+}
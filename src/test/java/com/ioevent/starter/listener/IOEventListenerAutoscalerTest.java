@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+
+class IOEventListenerAutoscalerTest {
+
+	@InjectMocks
+	IOEventListenerAutoscaler autoscaler = new IOEventListenerAutoscaler();
+	@Mock
+	ListenerCreator listenerCreator;
+	@Mock
+	IOEventConsumerPool consumerPool;
+	IOEventProperties iOEventProperties = new IOEventProperties();
+
+	@BeforeEach
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		iOEventProperties.setAutoscale_min_listeners(1);
+		iOEventProperties.setAutoscale_max_listeners(3);
+		iOEventProperties.setAutoscale_lag_high(100);
+		iOEventProperties.setAutoscale_lag_low(0);
+		ReflectionTestUtils.setField(autoscaler, "iOEventProperties",
+				iOEventProperties);
+	}
+
+	private Listener listener(long lag, int queueDepth) {
+		Listener listener = mock(Listener.class);
+		when(listener.isConsuming()).thenReturn(true);
+		when(listener.isJoined()).thenReturn(true);
+		when(listener.getLag()).thenReturn(lag);
+		when(listener.getQueueDepth()).thenReturn(queueDepth);
+		when(listener.getBeanMethodPairs()).thenReturn(Collections.emptyList());
+		return listener;
+	}
+
+	@Test
+	void scaleDecisionTest() {
+		assertEquals(1, autoscaler.scaleDecision(300, 2, 3));
+		assertEquals(0, autoscaler.scaleDecision(300, 3, 3));
+		assertEquals(0, autoscaler.scaleDecision(150, 2, 3));
+		assertEquals(-1, autoscaler.scaleDecision(0, 2, 3));
+		assertEquals(0, autoscaler.scaleDecision(0, 1, 3));
+	}
+
+	@Test
+	void addListenerWhenBehindTest() throws Throwable {
+		autoscaler.autoscaleTopic("topic", Arrays.asList(listener(250, 10)));
+
+		verify(listenerCreator, timeout(1000)).createListener(eq(Collections.emptyList()), eq("topic"), any(),
+				any());
+	}
+
+	@Test
+	void retireLastListenerWhenIdleTest() {
+		Listener first = listener(0, 0);
+		Listener last = listener(0, 0);
+
+		autoscaler.autoscaleTopic("topic", Arrays.asList(first, last));
+
+		verify(last).shutdown();
+		verify(first, never()).shutdown();
+	}
+
+	@Test
+	void skipTopicWithListenerRetiringTest() {
+		Listener first = listener(0, 0);
+		Listener retiring = listener(0, 0);
+		when(retiring.isConsuming()).thenReturn(false);
+
+		autoscaler.autoscaleTopic("topic", Arrays.asList(first, retiring));
+
+		verify(first, never()).shutdown();
+	}
+
+	@Test
+	void skipTopicWithPausedListenerTest() throws Throwable {
+		Listener paused = listener(250, 10);
+		when(paused.isPauseRequested()).thenReturn(true);
+
+		autoscaler.autoscaleTopic("topic", Arrays.asList(paused));
+
+		verify(listenerCreator, after(200).never()).createListener(eq(Collections.emptyList()), eq("topic"), any(),
+				any());
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+
+class IOEventListenerBootstrapTest {
+
+	@InjectMocks
+	IOEventListenerBootstrap listenerBootstrap = new IOEventListenerBootstrap();
+	@Mock
+	ListenerCreator listenerCreator;
+	@Mock
+	IOEventConsumerPool consumerPool;
+	@Mock
+	IOEventProperties iOEventProperties;
+	@Mock
+	AdminClient client;
+	@Mock
+	ApplicationEventPublisher eventPublisher;
+
+	/** method to test annotations **/
+	@IOEvent(key = "simple task", input = @InputEvent(key = "input"), output = @OutputEvent(key = "output"))
+	public void simpleTask() {
+	}
+
+	@BeforeEach
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+	}
+
+	@Test
+	void readyWithoutListenersTest() {
+		listenerBootstrap.onApplicationEvent(null);
+
+		assertTrue(listenerBootstrap.isReady());
+		ArgumentCaptor<IOEventListenersReadyEvent> event = ArgumentCaptor.forClass(IOEventListenersReadyEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertEquals(0, event.getValue().getListenerCount());
+	}
+
+	@Test
+	void readyOnceAllPoolListenersJoinedTest() {
+		AtomicReference<Runnable> onJoined = new AtomicReference<>();
+		when(consumerPool.isEnabled()).thenReturn(true);
+		when(consumerPool.start(any(), any())).then(invocation -> {
+			onJoined.set(invocation.getArgument(0));
+			return 2;
+		});
+
+		listenerBootstrap.onApplicationEvent(null);
+		onJoined.get().run();
+		assertFalse(listenerBootstrap.isReady());
+		onJoined.get().run();
+
+		assertTrue(listenerBootstrap.isReady());
+	}
+
+	@Test
+	void startListenersWithSingleDescribeTest() throws Throwable {
+		Method method = this.getClass().getMethod("simpleTask");
+		BeanMethodPair pair = new BeanMethodPair(this, method, method.getAnnotation(IOEvent.class));
+		Node node = new Node(0, "localhost", 9092);
+		TopicPartitionInfo partition = new TopicPartitionInfo(0, node, Arrays.asList(node), Arrays.asList(node));
+		DescribeTopicsResult describeTopicsResult = mock(DescribeTopicsResult.class);
+		when(describeTopicsResult.values()).thenReturn(Map.of("topic-1",
+				KafkaFuture.completedFuture(
+						new TopicDescription("topic-1", false, Arrays.asList(partition, partition, partition))),
+				"topic-2", KafkaFuture.completedFuture(
+						new TopicDescription("topic-2", false, Collections.singletonList(partition)))));
+		when(client.describeTopics(any(Collection.class))).thenReturn(describeTopicsResult);
+		listenerBootstrap.register("topic-1", pair);
+		listenerBootstrap.register("topic-2", pair);
+
+		listenerBootstrap.onApplicationEvent(null);
+
+		verify(client).describeTopics(any(Collection.class));
+		List<BeanMethodPair> pairs = Collections.singletonList(pair);
+		verify(listenerCreator, timeout(1000).times(2)).createListener(eq(pairs), eq("topic-1"), any(), any());
+		verify(listenerCreator, timeout(1000).times(1)).createListener(eq(pairs), eq("topic-2"), any(), any());
+		assertFalse(listenerBootstrap.isReady());
+	}
+
+	@Test
+	void readyWithFailedListenerCreationTest() throws Throwable {
+		Method method = this.getClass().getMethod("simpleTask");
+		BeanMethodPair pair = new BeanMethodPair(this, method, method.getAnnotation(IOEvent.class));
+		Node node = new Node(0, "localhost", 9092);
+		TopicPartitionInfo partition = new TopicPartitionInfo(0, node, Arrays.asList(node), Arrays.asList(node));
+		DescribeTopicsResult describeTopicsResult = mock(DescribeTopicsResult.class);
+		when(describeTopicsResult.values()).thenReturn(Map.of("topic-1", KafkaFuture
+				.completedFuture(new TopicDescription("topic-1", false, Collections.singletonList(partition)))));
+		when(client.describeTopics(any(Collection.class))).thenReturn(describeTopicsResult);
+		when(listenerCreator.createListener(eq(Collections.singletonList(pair)), eq("topic-1"), any(), any()))
+				.thenThrow(new IllegalStateException("consumer configuration error"));
+		listenerBootstrap.register("topic-1", pair);
+
+		listenerBootstrap.onApplicationEvent(null);
+
+		assertTrue(listenerBootstrap.awaitReady(1, TimeUnit.SECONDS));
+		assertEquals(1, listenerBootstrap.getFailedListeners());
+		ArgumentCaptor<IOEventListenersReadyEvent> event = ArgumentCaptor.forClass(IOEventListenersReadyEvent.class);
+		verify(eventPublisher, timeout(1000)).publishEvent(event.capture());
+		assertEquals(1, event.getValue().getListenerCount());
+		assertEquals(1, event.getValue().getFailedListenerCount());
+	}
+
+	@Test
+	void readyWithFailedPoolListenerCreationTest() throws Throwable {
+		Method method = this.getClass().getMethod("simpleTask");
+		BeanMethodPair pair = new BeanMethodPair(this, method, method.getAnnotation(IOEvent.class));
+		IOEventProperties poolProperties = new IOEventProperties();
+		poolProperties.setConsumer_pool(true);
+		poolProperties.setConsumer_pool_size(2);
+		IOEventConsumerPool pool = new IOEventConsumerPool();
+		ReflectionTestUtils.setField(pool, "listenerCreator", listenerCreator);
+		ReflectionTestUtils.setField(pool, "iOEventProperties", poolProperties);
+		ReflectionTestUtils.setField(pool, "kafkaGroupid", "group");
+		ReflectionTestUtils.setField(listenerBootstrap, "consumerPool", pool);
+		pool.register("topic-1", pair);
+		when(listenerCreator.createPoolListener(any(), any(), eq("group"), any()))
+				.thenThrow(new IllegalStateException("consumer configuration error"));
+
+		listenerBootstrap.onApplicationEvent(null);
+
+		assertTrue(listenerBootstrap.awaitReady(1, TimeUnit.SECONDS));
+		assertEquals(2, listenerBootstrap.getFailedListeners());
+		ArgumentCaptor<IOEventListenersReadyEvent> event = ArgumentCaptor.forClass(IOEventListenersReadyEvent.class);
+		verify(eventPublisher, timeout(1000)).publishEvent(event.capture());
+		assertEquals(2, event.getValue().getListenerCount());
+		assertEquals(2, event.getValue().getFailedListenerCount());
+	}
+}
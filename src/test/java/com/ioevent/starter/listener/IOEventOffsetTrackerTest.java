@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class IOEventOffsetTrackerTest {
+
+	TopicPartition partition = new TopicPartition("topic", 0);
+
+	private ConsumerRecord<String, String> record(long offset) {
+		return new ConsumerRecord<>("topic", 0, offset, "key", "value");
+	}
+
+	@Test
+	void commitContiguousProcessedOffsetsTest() {
+		IOEventOffsetTracker offsetTracker = new IOEventOffsetTracker();
+		offsetTracker.track(record(10), 1);
+		offsetTracker.track(record(11), 2);
+		offsetTracker.track(record(12), 0);
+		offsetTracker.track(record(13), 1);
+
+		offsetTracker.complete(record(13));
+		assertEquals(new OffsetAndMetadata(10), offsetTracker.committableOffsets().get(partition));
+
+		offsetTracker.complete(record(10));
+		offsetTracker.complete(record(11));
+		assertEquals(new OffsetAndMetadata(11), offsetTracker.committableOffsets().get(partition));
+
+		offsetTracker.complete(record(11));
+		assertEquals(new OffsetAndMetadata(14), offsetTracker.committableOffsets().get(partition));
+		assertEquals(3, offsetTracker.getCompletedSinceCommit());
+	}
+
+	@Test
+	void skipCommittedPartitionsTest() {
+		IOEventOffsetTracker offsetTracker = new IOEventOffsetTracker();
+		offsetTracker.track(record(0), 1);
+		offsetTracker.complete(record(0));
+
+		offsetTracker.committed(offsetTracker.committableOffsets());
+		assertTrue(offsetTracker.committableOffsets().isEmpty());
+
+		offsetTracker.remove(Arrays.asList(partition));
+		offsetTracker.complete(record(0));
+		assertTrue(offsetTracker.committableOffsets().isEmpty());
+	}
+}
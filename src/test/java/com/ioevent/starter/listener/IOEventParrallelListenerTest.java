@@ -30,13 +30,25 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.google.gson.Gson;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+import com.ioevent.starter.domain.IOEventParallelEventInformation;
 import com.ioevent.starter.domain.ParallelEventInfo;
+import com.ioevent.starter.handler.IOEventJacksonPayloadCodec;
+import com.ioevent.starter.handler.IOEventPayloadCodec;
+import com.ioevent.starter.handler.IOEventStepRegistry;
+import com.ioevent.starter.handler.RecordsHandler;
 import com.ioevent.starter.listener.IOEventParrallelListener;
 
 class IOEventParrallelListenerTest {
@@ -44,7 +56,26 @@ class IOEventParrallelListenerTest {
 	@InjectMocks
 	IOEventParrallelListener ioeventParrallelListener=new IOEventParrallelListener();
 
+	@Mock
+	RecordsHandler recordsHandler;
+
+	@Mock
+	IOEventStepRegistry stepRegistry;
+
+	@Mock
+	IOEventProperties iOEventProperties;
+
+	@Spy
+	IOEventPayloadCodec payloadCodec = new IOEventJacksonPayloadCodec();
+
 	Gson gson = new Gson();
+
+	@BeforeEach
+	public void init() {
+
+		MockitoAnnotations.initMocks(this);
+	}
+
 	@Test
 	void parseConsumedValueTest() throws JsonMappingException, JsonProcessingException {
 		// test String object
@@ -72,4 +103,27 @@ class IOEventParrallelListenerTest {
 
 	}
 
+	@Test
+	void completedJoinDispatchedOnCompletionExecutorTest() throws Throwable {
+		IOEventParallelEventInformation parallelEventInformation = new IOEventParallelEventInformation();
+		parallelEventInformation.setStepId("step");
+		parallelEventInformation.setInputRequired(Arrays.asList("input A", "input B"));
+		parallelEventInformation.setInputsArrived(Arrays.asList("input B", "input A"));
+		BeanMethodPair pair = new BeanMethodPair();
+		Mockito.when(stepRegistry.getStep("step", null, null)).thenReturn(pair);
+		Mockito.when(iOEventProperties.getParallel_executor_threads()).thenReturn(2);
+		Mockito.when(iOEventProperties.getParallel_executor_queue_capacity()).thenReturn(10);
+		Mockito.doThrow(new IllegalStateException("error")).when(recordsHandler).invokeParallelJoin(Mockito.any(),
+				Mockito.any());
+
+		ioeventParrallelListener.consumeParallelEvent(gson.toJson(parallelEventInformation));
+		ioeventParrallelListener.consumeParallelEvent(gson.toJson(parallelEventInformation));
+		ioeventParrallelListener.shutdownCompletionExecutor();
+
+		Mockito.verify(recordsHandler, Mockito.times(2)).invokeParallelJoin(Mockito.eq(pair), Mockito.any());
+		assertEquals(2, ioeventParrallelListener.getFailedCompletions());
+		assertEquals(2, ioeventParrallelListener.getCompletionExecutor().getMaximumPoolSize());
+		assertEquals(10, ioeventParrallelListener.getCompletionExecutor().getQueue().remainingCapacity());
+	}
+
 }
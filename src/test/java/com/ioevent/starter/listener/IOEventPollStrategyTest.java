@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class IOEventPollStrategyTest {
+
+	@Test
+	void backOffWhenIdleTest() {
+		IOEventPollStrategy pollStrategy = new IOEventPollStrategy(10, 50);
+		assertEquals(Duration.ofMillis(10), pollStrategy.nextTimeout());
+
+		pollStrategy.onPoll(0);
+		assertEquals(Duration.ofMillis(20), pollStrategy.nextTimeout());
+		pollStrategy.onPoll(0);
+		pollStrategy.onPoll(0);
+		assertEquals(Duration.ofMillis(50), pollStrategy.nextTimeout());
+
+		pollStrategy.onPoll(3);
+		assertEquals(Duration.ofMillis(10), pollStrategy.nextTimeout());
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.domain.IOEventHeaders;
+
+class IOEventRecordFilterTest {
+
+	/** method to test annotations **/
+	@IOEvent(key = "simple task", input = { @InputEvent(key = "input A"),
+			@InputEvent(key = "input B") }, output = @OutputEvent(key = "output"))
+	public void simpleTask() {
+	}
+
+	private BeanMethodPair simplePair() throws NoSuchMethodException, SecurityException {
+		Method method = this.getClass().getMethod("simpleTask");
+		return new BeanMethodPair(this, method, method.getAnnotation(IOEvent.class));
+	}
+
+	private ConsumerRecord<String, String> record(String topic, String outputEvent) {
+		ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<>(topic, 0, 0, "key", "value");
+		if (outputEvent != null) {
+			consumerRecord.headers().add(IOEventHeaders.OUTPUT_EVENT.toString(), outputEvent.getBytes());
+		}
+		return consumerRecord;
+	}
+
+	@Test
+	void acceptsRawInputNamesTest() throws NoSuchMethodException, SecurityException {
+		IOEventRoutingTable routingTable = IOEventRoutingTable.of(Arrays.asList(simplePair()));
+
+		assertTrue(routingTable.accepts("topic", "input A".getBytes()));
+		assertTrue(routingTable.accepts("topic", "input B".getBytes()));
+		assertFalse(routingTable.accepts("topic", "input C".getBytes()));
+		assertFalse(routingTable.accepts("topic", null));
+		assertFalse(IOEventRoutingTable.of(Collections.emptyList()).accepts("topic", "input A".getBytes()));
+	}
+
+	@Test
+	void acceptsRawInputNamesByTopicTest() throws NoSuchMethodException, SecurityException {
+		Map<String, List<BeanMethodPair>> pairsByTopic = new HashMap<>();
+		pairsByTopic.put("topic-1", Arrays.asList(simplePair()));
+
+		IOEventRoutingTable routingTable = IOEventRoutingTable.ofTopics(pairsByTopic);
+
+		assertTrue(routingTable.accepts("topic-1", "input A".getBytes()));
+		assertFalse(routingTable.accepts("topic-2", "input A".getBytes()));
+	}
+
+	@Test
+	void filterCountersTest() throws NoSuchMethodException, SecurityException {
+		IOEventRoutingTable routingTable = IOEventRoutingTable.of(Arrays.asList(simplePair()));
+		IOEventRecordFilter recordFilter = new IOEventRecordFilter();
+
+		assertTrue(recordFilter.accept(record("topic", "input A"), routingTable));
+		assertFalse(recordFilter.accept(record("topic", "other step input"), routingTable));
+		assertFalse(recordFilter.accept(record("topic", null), routingTable));
+		assertFalse(recordFilter.accept(record("topic", "input"), routingTable));
+
+		assertEquals(1, recordFilter.getAccepted());
+		assertEquals(3, recordFilter.getSkipped());
+		assertEquals(0.75, recordFilter.getSkippedRatio(), 0.001);
+	}
+}
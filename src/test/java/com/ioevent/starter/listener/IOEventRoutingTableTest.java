@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.ioevent.starter.annotations.GatewayInputEvent;
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+
+class IOEventRoutingTableTest {
+
+	/** method to test annotations **/
+	@IOEvent(key = "simple task", input = @InputEvent(key = "input A"), output = @OutputEvent(key = "output"))
+	public void simpleTask() {
+	}
+
+	/** method to test annotations **/
+	@IOEvent(key = "parallel task", gatewayInput = @GatewayInputEvent(parallel = true, input = {
+			@InputEvent(key = "input A"), @InputEvent(key = "input B") }), output = @OutputEvent(key = "output"))
+	public void parallelTask() {
+	}
+
+	@Test
+	void routeTest() throws NoSuchMethodException, SecurityException {
+		Method simpleMethod = this.getClass().getMethod("simpleTask");
+		Method parallelMethod = this.getClass().getMethod("parallelTask");
+		BeanMethodPair simplePair = new BeanMethodPair(this, simpleMethod, simpleMethod.getAnnotation(IOEvent.class));
+		BeanMethodPair parallelPair = new BeanMethodPair(this, parallelMethod,
+				parallelMethod.getAnnotation(IOEvent.class));
+
+		IOEventRoutingTable routingTable = IOEventRoutingTable.of(Arrays.asList(simplePair, parallelPair));
+
+		assertEquals(Arrays.asList(simplePair, parallelPair), routingTable.route("input A"));
+		assertEquals(Arrays.asList(parallelPair), routingTable.route("input B"));
+		assertTrue(routingTable.route("unknown input").isEmpty());
+		assertTrue(routingTable.route(null).isEmpty());
+	}
+
+	@Test
+	void routeByTopicTest() throws NoSuchMethodException, SecurityException {
+		Method simpleMethod = this.getClass().getMethod("simpleTask");
+		Method parallelMethod = this.getClass().getMethod("parallelTask");
+		BeanMethodPair simplePair = new BeanMethodPair(this, simpleMethod, simpleMethod.getAnnotation(IOEvent.class));
+		BeanMethodPair parallelPair = new BeanMethodPair(this, parallelMethod,
+				parallelMethod.getAnnotation(IOEvent.class));
+		Map<String, List<BeanMethodPair>> pairsByTopic = new HashMap<>();
+		pairsByTopic.put("topic-1", Arrays.asList(simplePair));
+		pairsByTopic.put("topic-2", Arrays.asList(parallelPair));
+
+		IOEventRoutingTable routingTable = IOEventRoutingTable.ofTopics(pairsByTopic);
+
+		assertEquals(Arrays.asList(simplePair), routingTable.route("topic-1", "input A"));
+		assertEquals(Arrays.asList(parallelPair), routingTable.route("topic-2", "input A"));
+		assertTrue(routingTable.route("topic-1", "input B").isEmpty());
+		assertTrue(routingTable.route("topic-3", "input A").isEmpty());
+		assertEquals(2, routingTable.getBeanMethodPairs().size());
+	}
+
+	@Test
+	void addBeanMethodRebuildRoutingTableTest() throws NoSuchMethodException, SecurityException {
+		Method simpleMethod = this.getClass().getMethod("simpleTask");
+		Method parallelMethod = this.getClass().getMethod("parallelTask");
+		Listener listener = new Listener(null, null, this, simpleMethod, simpleMethod.getAnnotation(IOEvent.class),
+				"topic");
+		assertTrue(listener.getRoutingTable().route("input B").isEmpty());
+
+		listener.addBeanMethod(new BeanMethodPair(this, parallelMethod, parallelMethod.getAnnotation(IOEvent.class)));
+		listener.addBeanMethod(new BeanMethodPair(this, parallelMethod, parallelMethod.getAnnotation(IOEvent.class)));
+
+		assertEquals(2, listener.getRoutingTable().route("input A").size());
+		assertEquals(1, listener.getRoutingTable().route("input B").size());
+	}
+}
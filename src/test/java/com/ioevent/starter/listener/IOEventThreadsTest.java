@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class IOEventThreadsTest {
+
+	private static final int BLOCKING_STEPS = 200;
+	private static final long BLOCKING_MILLIS = 50;
+
+	@Test
+	void platformThreadFallbackTest() throws InterruptedException {
+		assumeFalse(IOEventThreads.isVirtualThreadSupported());
+		assertNull(IOEventThreads.virtualThreadPerTaskExecutor("test-"));
+
+		CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = IOEventThreads.newThread(true, "listener", latch::countDown);
+		assertEquals("listener", thread.getName());
+		thread.start();
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * compare the throughput of blocking steps between the default thread pool and
+	 * the virtual threads mode, only runs on a runtime supporting virtual threads
+	 **/
+	@Test
+	void blockingStepsThroughputTest() throws InterruptedException {
+		assumeTrue(IOEventThreads.isVirtualThreadSupported());
+
+		ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+		pool.setCorePoolSize(5);
+		pool.setMaxPoolSize(10);
+		pool.initialize();
+		long poolMillis = runBlockingSteps(pool);
+		pool.shutdown();
+		long virtualMillis = runBlockingSteps(IOEventThreads.virtualThreadPerTaskExecutor("test-"));
+
+		log.info(BLOCKING_STEPS + " blocking steps of " + BLOCKING_MILLIS + "ms : thread pool " + poolMillis
+				+ "ms , virtual threads " + virtualMillis + "ms");
+		assertTrue(virtualMillis < poolMillis);
+	}
+
+	private long runBlockingSteps(Executor executor) throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(BLOCKING_STEPS);
+		long start = System.nanoTime();
+		for (int i = 0; i < BLOCKING_STEPS; i++) {
+			executor.execute(() -> {
+				try {
+					Thread.sleep(BLOCKING_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				latch.countDown();
+			});
+		}
+		assertTrue(latch.await(60, TimeUnit.SECONDS));
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+}
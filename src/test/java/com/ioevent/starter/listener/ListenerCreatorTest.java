@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+import com.ioevent.starter.domain.IOEventFetchMode;
+import com.ioevent.starter.service.IOEventStepControlService;
+
+class ListenerCreatorTest {
+
+	ListenerCreator listenerCreator = new ListenerCreator();
+	List<Listener> listeners = new ArrayList<>();
+	@Mock
+	IOEventStepControlService stepControlService;
+
+	@BeforeEach
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(listenerCreator, "listeners", listeners);
+		ReflectionTestUtils.setField(listenerCreator, "iOEventProperties", new IOEventProperties());
+		ReflectionTestUtils.setField(listenerCreator, "stepControlService", stepControlService);
+	}
+
+	private Listener listener(String topic) {
+		return new Listener(new MockConsumer<>(OffsetResetStrategy.EARLIEST), null,
+				IOEventRoutingTable.of(new ArrayList<>()), topic);
+	}
+
+	@Test
+	void listenerOfPausedTopicStartsPausedTest() {
+		when(stepControlService.isTopicPaused("paused-topic")).thenReturn(true);
+		Listener pausedListener = listener("paused-topic");
+		Listener runningListener = listener("running-topic");
+
+		listenerCreator.configureListener(pausedListener, IOEventFetchMode.LATENCY);
+		listenerCreator.configureListener(runningListener, IOEventFetchMode.LATENCY);
+
+		assertTrue(pausedListener.isPauseRequested());
+		assertFalse(runningListener.isPauseRequested());
+		assertEquals(2, listeners.size());
+	}
+}
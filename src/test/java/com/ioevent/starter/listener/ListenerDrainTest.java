@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+
+class ListenerDrainTest {
+
+	/** method to test annotations **/
+	@IOEvent(key = "simple task", input = @InputEvent(key = "input"), output = @OutputEvent(key = "output"))
+	public void simpleTask() {
+	}
+
+	private Listener startListener(MockConsumer<String, String> consumer, long drainTimeoutMs)
+			throws NoSuchMethodException, SecurityException, InterruptedException {
+		Method method = this.getClass().getMethod("simpleTask");
+		Listener listener = new Listener(consumer, null, this, method, method.getAnnotation(IOEvent.class), "topic");
+		listener.setDrainTimeoutMs(drainTimeoutMs);
+		Properties props = new Properties();
+		props.setProperty("topicName", "topic");
+		new Thread(() -> {
+			try {
+				listener.runConsume(props);
+			} catch (Throwable e) {
+				// the test checks the listener state
+			}
+		}).start();
+		Thread.sleep(50);
+		return listener;
+	}
+
+	@Test
+	void shutdownWaitsForInFlightRecordsTest() throws Exception {
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		Listener listener = startListener(consumer, 10000);
+		listener.getInFlightWindow().acquire();
+
+		listener.shutdown();
+		assertFalse(listener.awaitTermination(100, TimeUnit.MILLISECONDS));
+		listener.getInFlightWindow().release();
+
+		assertTrue(listener.awaitTermination(5, TimeUnit.SECONDS));
+		assertTrue(consumer.closed());
+		assertTrue(listener.getDrainTimeMs() >= 100);
+	}
+
+	@Test
+	void shutdownDrainTimeoutTest() throws Exception {
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		Listener listener = startListener(consumer, 100);
+		listener.getInFlightWindow().acquire();
+
+		listener.shutdown();
+
+		assertTrue(listener.awaitTermination(5, TimeUnit.SECONDS));
+		assertTrue(consumer.closed());
+		assertEquals(1, listener.getQueueDepth());
+	}
+
+	@Test
+	void finalCommitRetriedAfterPendingWakeupTest() throws Exception {
+		MockConsumer<String, String> consumer = Mockito.spy(new MockConsumer<>(OffsetResetStrategy.EARLIEST));
+		TopicPartition partition = new TopicPartition("topic", 0);
+		consumer.assign(Collections.singleton(partition));
+		Method method = this.getClass().getMethod("simpleTask");
+		Listener listener = new Listener(consumer, null, this, method, method.getAnnotation(IOEvent.class), "topic");
+		listener.getOffsetTracker().track(new ConsumerRecord<>("topic", 0, 41L, "key", "value"), 0);
+		Mockito.doThrow(new WakeupException()).doCallRealMethod().when(consumer).commitSync(Mockito.anyMap());
+
+		listener.commitSync(listener.getOffsetTracker().committableOffsets());
+
+		assertEquals(42L, consumer.committed(Collections.singleton(partition)).get(partition).offset());
+	}
+}
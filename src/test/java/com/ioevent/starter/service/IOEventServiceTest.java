@@ -25,6 +25,7 @@ package com.ioevent.starter.service;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
@@ -60,7 +61,9 @@ import com.ioevent.starter.annotations.IOResponse;
 import com.ioevent.starter.annotations.InputEvent;
 import com.ioevent.starter.annotations.StartEvent;
 import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.kafka.IOEventGatewayTopics;
 import com.ioevent.starter.domain.IOEventHeaders;
+import com.ioevent.starter.domain.IOEventParallelAggregate;
 import com.ioevent.starter.domain.IOEventParallelEventInformation;
 import com.ioevent.starter.domain.IOEventType;
 
@@ -144,10 +147,13 @@ class IOEventServiceTest {
 	
 	@Mock
 	KafkaTemplate<String, Object> kafkaTemplate ;
+	@Mock
+	IOEventGatewayTopics gatewayTopics;
 	@BeforeEach
 	public void init() {
 
 		MockitoAnnotations.initMocks(this);
+		when(gatewayTopics.getEventsTopic()).thenReturn("ioevent-parallel-gateway-events");
 	}
 	@Test
 	void givenKeyValue_whenSend_thenVerifyHistory() {
@@ -333,4 +339,33 @@ class IOEventServiceTest {
 
 	}
 
+
+	private InputEvent inputEvent(String key) {
+		InputEvent inputEvent = Mockito.mock(InputEvent.class);
+		when(inputEvent.key()).thenReturn(key);
+		when(inputEvent.value()).thenReturn("");
+		return inputEvent;
+	}
+
+	@Test
+	void parallelGatewayInputsLimitCountsAllInputsTest() throws NoSuchMethodException, SecurityException {
+		InputEvent[] gatewayInputs = new InputEvent[IOEventParallelAggregate.MAX_INPUTS - 1];
+		for (int i = 0; i < gatewayInputs.length; i++) {
+			gatewayInputs[i] = inputEvent("gateway input " + i);
+		}
+		InputEvent[] inputs = new InputEvent[] { inputEvent("input") };
+		InputEvent[] tooManyInputs = new InputEvent[] { inputEvent("input"), inputEvent("other input") };
+		IOEvent ioEvent = Mockito.mock(IOEvent.class, Mockito.RETURNS_DEEP_STUBS);
+		when(ioEvent.gatewayOutput().output()).thenReturn(new OutputEvent[0]);
+		when(ioEvent.gatewayInput().input()).thenReturn(gatewayInputs);
+		when(ioEvent.gatewayInput().parallel()).thenReturn(true);
+		when(ioEvent.input()).thenReturn(inputs);
+		when(ioEvent.exception().exception()).thenReturn(new Class[0]);
+		Method method = this.getClass().getMethod("toString");
+
+		ioEventService.gatewayValidation(ioEvent, method);
+		when(ioEvent.input()).thenReturn(tooManyInputs);
+
+		assertThrows(IllegalArgumentException.class, () -> ioEventService.gatewayValidation(ioEvent, method));
+	}
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2021 CodeOnce Software (https://www.codeonce.fr/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ioevent.starter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ioevent.starter.annotations.IOEvent;
+import com.ioevent.starter.annotations.InputEvent;
+import com.ioevent.starter.annotations.OutputEvent;
+import com.ioevent.starter.configuration.postprocessor.BeanMethodPair;
+import com.ioevent.starter.configuration.properties.IOEventProperties;
+import com.ioevent.starter.domain.IOEventBpmnPart;
+import com.ioevent.starter.handler.IOEventStepRegistry;
+import com.ioevent.starter.handler.IOEventThrottle;
+import com.ioevent.starter.listener.Listener;
+
+class IOEventStepControlServiceTest {
+
+	IOEventStepControlService stepControlService = new IOEventStepControlService();
+	IOEventStepRegistry stepRegistry = new IOEventStepRegistry();
+	List<Listener> listeners = new ArrayList<>();
+	List<IOEventBpmnPart> iobpmnlist = new ArrayList<>();
+	MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+	BeanMethodPair simplePair;
+
+	/** method to test annotations **/
+	@IOEvent(key = "simple task", input = @InputEvent(key = "input"), output = @OutputEvent(key = "output"))
+	public void simpleTask() {
+	}
+
+	@BeforeEach
+	public void init() throws NoSuchMethodException, SecurityException {
+		Method method = this.getClass().getMethod("simpleTask");
+		simplePair = new BeanMethodPair(this, method, method.getAnnotation(IOEvent.class));
+		simplePair.setStepId("step-id");
+		stepRegistry.register(simplePair);
+		listeners.add(new Listener(consumer, null, simplePair, "IOEvent-topic"));
+		IOEventBpmnPart part = new IOEventBpmnPart();
+		part.setId("step-id");
+		iobpmnlist.add(part);
+		IOEventProperties iOEventProperties = new IOEventProperties();
+		iOEventProperties.setPrefix("IOEvent");
+		ReflectionTestUtils.setField(stepControlService, "stepRegistry", stepRegistry);
+		ReflectionTestUtils.setField(stepControlService, "listeners", listeners);
+		ReflectionTestUtils.setField(stepControlService, "iobpmnlist", iobpmnlist);
+		ReflectionTestUtils.setField(stepControlService, "iOEventProperties", iOEventProperties);
+	}
+
+	@Test
+	void pauseAndResumeStepTest() {
+		TopicPartition partition = new TopicPartition("IOEvent-topic", 0);
+		consumer.assign(Collections.singleton(partition));
+
+		assertEquals(Arrays.asList("IOEvent-topic"), stepControlService.pauseStep("simple task"));
+		ReflectionTestUtils.invokeMethod(listeners.get(0), "applyBackpressure");
+
+		assertTrue(consumer.paused().contains(partition));
+		assertTrue(iobpmnlist.get(0).isPaused());
+
+		assertEquals(Arrays.asList("IOEvent-topic"), stepControlService.resumeStep("step-id"));
+		ReflectionTestUtils.invokeMethod(listeners.get(0), "applyBackpressure");
+
+		assertTrue(consumer.paused().isEmpty());
+		assertFalse(iobpmnlist.get(0).isPaused());
+	}
+
+	@Test
+	void pauseTopicTest() {
+		assertEquals(Arrays.asList("IOEvent-topic"), stepControlService.pauseTopic("topic"));
+		assertTrue(listeners.get(0).isPauseRequested());
+		assertTrue(stepControlService.pauseTopic("other").isEmpty());
+		assertTrue(stepControlService.isTopicPaused("IOEvent-topic"));
+		assertTrue(stepControlService.isTopicPaused("IOEvent-other,IOEvent-topic"));
+		assertFalse(stepControlService.isTopicPaused("IOEvent-other"));
+
+		stepControlService.resumeTopic("IOEvent-topic");
+		assertFalse(stepControlService.isTopicPaused("IOEvent-topic"));
+	}
+
+	@Test
+	void throttleStepTest() {
+		assertEquals(Arrays.asList("step-id"), stepControlService.throttleStep("simple task", 20));
+		assertEquals(20, iobpmnlist.get(0).getThrottle(), 0.001);
+
+		IOEventThrottle throttle = simplePair.getThrottle();
+		long waitNanos = 0;
+		for (int i = 0; i < 5; i++) {
+			waitNanos = throttle.reserve(1);
+		}
+		assertTrue(waitNanos >= 190_000_000L);
+
+		stepControlService.throttleStep("simple task", 0);
+		assertNull(simplePair.getThrottle());
+		assertEquals(0, iobpmnlist.get(0).getThrottle(), 0.001);
+	}
+}